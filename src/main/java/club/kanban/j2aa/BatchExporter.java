@@ -0,0 +1,256 @@
+package club.kanban.j2aa;
+
+import club.kanban.j2aa.j2aaconverter.IssueCache;
+import club.kanban.j2aa.j2aaconverter.J2aaConverter;
+import club.kanban.j2aa.j2aaconverter.fileadapters.FileAdapterFactory;
+import club.kanban.j2aa.jiraclient.JiraClient;
+import club.kanban.j2aa.jiraclient.JiraException;
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пакетная выгрузка нескольких досок. Доски выгружаются параллельно (не более batchConcurrency одновременно)
+ * через общий JiraClient (одна пользовательская сессия и один пул соединений на каждый сервер jira).
+ * Результаты каждой доски записываются в собственные файлы, и ошибка выгрузки одной доски
+ * не прерывает выгрузку остальных
+ */
+public class BatchExporter {
+    private static final Logger logger = LoggerFactory.getLogger(BatchExporter.class);
+    public static final int DEFAULT_BATCH_CONCURRENCY = 4;
+    private static final String BOARD_FILE_NAME_TEMPLATE = "%s-board-%d.%s";
+
+    private final ConnectionProfile baseProfile;
+    private final String username;
+    private final String password;
+    private final int batchConcurrency;
+    private final FileAdapterFactory fileAdapterFactory;
+
+    /**
+     * @param baseProfile профиль подключения, значения которого используются для досок, заданных ссылками
+     * @param username    имя пользователя
+     * @param password    пароль
+     */
+    public BatchExporter(ConnectionProfile baseProfile, String username, String password) {
+        this(baseProfile, username, password, null);
+    }
+
+    /**
+     * @param baseProfile        профиль подключения, значения которого используются для досок, заданных ссылками
+     * @param username           имя пользователя
+     * @param password           пароль
+     * @param fileAdapterFactory форматы выгрузки. Если не задана, то используется FileAdapterFactory
+     *                           из контекста приложения
+     */
+    public BatchExporter(ConnectionProfile baseProfile, String username, String password,
+                         FileAdapterFactory fileAdapterFactory) {
+        this.baseProfile = baseProfile;
+        this.username = username;
+        this.password = password;
+        this.fileAdapterFactory = fileAdapterFactory;
+        this.batchConcurrency = baseProfile.getBatchConcurrency() > 0
+                ? baseProfile.getBatchConcurrency() : DEFAULT_BATCH_CONCURRENCY;
+    }
+
+    /**
+     * Создает JiraClient с параметрами профиля подключения
+     */
+    public static JiraClient newJiraClient(URL boardUrl, String username, String password,
+                                           ConnectionProfile profile) {
+        return JiraClient
+                .builder(boardUrl, username, password)
+                .withUrlPathPrefix(profile.getUrlPathPrefix())
+                .withHttpClientSettings(profile.getHttpClientSettings())
+                .withAccessToken(profile.getAccessToken())
+                .withSessionStore(profile.getSessionFile().isBlank() ? null : Path.of(profile.getSessionFile()))
+                .withResponseCacheDir(profile.getResponseCacheDir().isBlank()
+                        ? null : Path.of(profile.getResponseCacheDir()))
+                .build();
+    }
+
+    /**
+     * Создает конвертер доски с параметрами профиля подключения
+     */
+    public static J2aaConverter newConverter(JiraClient jiraClient, URL boardUrl, ConnectionProfile profile) {
+        return newConverter(jiraClient, boardUrl, profile, null);
+    }
+
+    /**
+     * Создает конвертер доски с параметрами профиля подключения и заданными форматами выгрузки
+     */
+    public static J2aaConverter newConverter(JiraClient jiraClient, URL boardUrl, ConnectionProfile profile,
+                                             FileAdapterFactory fileAdapterFactory) {
+        return newConverterBuilder(jiraClient, boardUrl, profile, fileAdapterFactory).build();
+    }
+
+    /**
+     * Возвращает builder конвертера доски с параметрами профиля подключения
+     */
+    public static J2aaConverter.J2aaConverterBuilder newConverterBuilder(JiraClient jiraClient, URL boardUrl,
+                                                                         ConnectionProfile profile,
+                                                                         FileAdapterFactory fileAdapterFactory) {
+        return J2aaConverter.builder(jiraClient, boardUrl)
+                .withJiraFields(Arrays.asList(profile.getJiraFields()))
+                .withJqlSubFilter(profile.getJqlSubFilter())
+                .withUseMaxColumn(profile.isUseMaxColumn())
+                .withFetchConcurrency(profile.getFetchConcurrency())
+                .withConvertConcurrency(profile.getConvertConcurrency())
+                .withMaxIssuesInMemory(profile.isStreamingExport() ? 0 : profile.getMaxIssuesInMemory())
+                .withIssueCache(profile.getIssueCacheDir().isBlank()
+                        ? null : new IssueCache(Path.of(profile.getIssueCacheDir())))
+                .withMinPageSize(profile.getMinPageSize())
+                .withMaxPageSize(profile.getMaxPageSize())
+                .withFileAdapterFactory(fileAdapterFactory);
+    }
+
+    /**
+     * Формирует профили подключения для выгрузки. Каждый элемент - это файл профиля подключения или ссылка
+     * на доску. Для ссылки используются параметры базового профиля, а файл для экспорта (<сервер>-board-<id>,
+     * так как доски разных серверов могут иметь одинаковые идентификаторы) размещается в каталоге файла
+     * для экспорта базового профиля
+     *
+     * @param items файлы профилей подключения и ссылки на доски
+     * @return профили подключения
+     * @throws IOException   в случае если не удается прочитать файл профиля подключения
+     * @throws JiraException если ссылка не содержит ссылки на доску
+     */
+    public List<ConnectionProfile> getProfiles(List<String> items) throws IOException {
+        List<ConnectionProfile> profiles = new ArrayList<>(items.size());
+        for (String item : items) {
+            ConnectionProfile profile = baseProfile.copy();
+            URL boardUrl = toUrl(item);
+            if (boardUrl != null) {
+                String baseOutputFile = Objects.toString(baseProfile.getOutputFileName(), "");
+                String extension = FilenameUtils.getExtension(baseOutputFile);
+                File outputFile = new File(FilenameUtils.getFullPath(baseOutputFile),
+                        String.format(BOARD_FILE_NAME_TEMPLATE, getServerName(boardUrl),
+                                J2aaConverter.getBoardId(boardUrl), extension.isEmpty() ? "csv" : extension));
+                profile.setBoardAddress(boardUrl.toString());
+                profile.setOutputFileName(outputFile.getPath());
+            } else {
+                profile.readConnProfile(new File(item));
+            }
+            profiles.add(profile);
+        }
+        return profiles;
+    }
+
+    /**
+     * Выгружает доски заданных профилей подключения
+     *
+     * @param profiles профили подключения
+     * @return число досок, которые не удалось выгрузить
+     * @throws InterruptedException если выгрузка прервана
+     */
+    public int exportAll(List<ConnectionProfile> profiles) throws InterruptedException {
+        logger.info(String.format("Пакетная выгрузка %d досок (одновременно не более %d)",
+                profiles.size(), batchConcurrency));
+
+        Map<String, JiraClient> jiraClients = new LinkedHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(batchConcurrency);
+        AtomicInteger failures = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>(profiles.size());
+            for (ConnectionProfile profile : profiles) {
+                URL boardUrl;
+                JiraClient jiraClient;
+                try {
+                    boardUrl = new URL(profile.getBoardAddress());
+                    jiraClient = getJiraClient(jiraClients, boardUrl, profile);
+                } catch (MalformedURLException | JiraException e) {
+                    logger.info(String.format("%s: %s", profile.getBoardAddress(), e.getMessage()));
+                    failures.incrementAndGet();
+                    continue;
+                }
+                futures.add(executor.submit(() -> {
+                    if (!exportBoard(jiraClient, boardUrl, profile)) {
+                        failures.incrementAndGet();
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    failures.incrementAndGet();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            jiraClients.values().forEach(jiraClient -> {
+                try {
+                    jiraClient.close();
+                } catch (Exception e) {
+                    logger.info(String.format("Ошибка завершения сессии %s: %s",
+                            jiraClient.getServerUrl(), e.getMessage()));
+                }
+            });
+        }
+
+        logger.info(String.format("Пакетная выгрузка завершена: %d досок выгружено, %d с ошибками",
+                profiles.size() - failures.get(), failures.get()));
+        return failures.get();
+    }
+
+    /**
+     * Возвращает JiraClient для сервера доски. Для каждого сервера создается один JiraClient
+     * с параметрами подключения (url-path-prefix, http-*) первой доски этого сервера
+     */
+    private JiraClient getJiraClient(Map<String, JiraClient> jiraClients, URL boardUrl, ConnectionProfile profile) {
+        String server = boardUrl.getProtocol() + "://" + boardUrl.getAuthority();
+        JiraClient jiraClient = jiraClients.get(server);
+        if (jiraClient == null) {
+            jiraClient = newJiraClient(boardUrl, username, password, profile);
+            jiraClients.put(server, jiraClient);
+        }
+        return jiraClient;
+    }
+
+    private boolean exportBoard(JiraClient jiraClient, URL boardUrl, ConnectionProfile profile) {
+        try {
+            long start = System.nanoTime();
+            J2aaConverter converter = newConverter(jiraClient, boardUrl, profile, fileAdapterFactory);
+            int issuesCount = converter.fetchAndExport(profile.getOutputFileName());
+            if (issuesCount > 0 && profile.isExportBlockersCalendar()) {
+                converter.exportBlockers(profile.getOutputFileName());
+            }
+            logger.info(String.format("%s: выгружено %d issues в %s за %d сек", boardUrl, issuesCount,
+                    profile.getOutputFileName(), (System.nanoTime() - start) / 1_000_000_000L));
+            return true;
+        } catch (Exception e) {
+            logger.info(String.format("%s: ошибка выгрузки: %s", boardUrl, e.getMessage()));
+            return false;
+        }
+    }
+
+    /**
+     * Возвращает имя сервера доски для имени файла: хост и порт (если задан)
+     */
+    private static String getServerName(URL boardUrl) {
+        return boardUrl.getPort() == -1 ? boardUrl.getHost() : boardUrl.getHost() + "-" + boardUrl.getPort();
+    }
+
+    private static URL toUrl(String item) {
+        if (!item.matches("(?i)^https?://.*")) {
+            return null;
+        }
+        try {
+            return new URL(item);
+        } catch (MalformedURLException e) {
+            return null;
+        }
+    }
+}
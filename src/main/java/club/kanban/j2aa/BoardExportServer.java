@@ -0,0 +1,286 @@
+package club.kanban.j2aa;
+
+import club.kanban.j2aa.j2aaconverter.J2aaConverter;
+import club.kanban.j2aa.j2aaconverter.fileadapters.Exportable;
+import club.kanban.j2aa.j2aaconverter.fileadapters.FileAdapterFactory;
+import club.kanban.j2aa.jiraclient.JiraClient;
+import club.kanban.j2aa.jiraclient.JiraException;
+import club.kanban.j2aa.jiraclient.RetryableResponseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Локальный HTTP сервер, выгружающий доски по запросу: GET /boards/{id}.{формат}, например /boards/123.csv.
+ * Формат выбирается по расширению (см. FileAdapterFactory). Конвертированные задачи доски хранятся в памяти
+ * в течение ttl и используются для всех форматов, а одновременные запросы одной доски выполняют одну выгрузку
+ * из jira. Сервер принимает соединения только с локального адреса. Для неизвестной доски или формата
+ * возвращается 404, для ошибки выгрузки из jira - 502
+ */
+public class BoardExportServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(BoardExportServer.class);
+    public static final String BOARDS_PATH = "/boards/";
+    private static final Pattern BOARD_PATH_PATTERN = Pattern.compile("^" + BOARDS_PATH + "(\\d+)\\.(\\w+)$");
+    private static final String BOARD_URL_TEMPLATE = "%s/secure/RapidBoard.jspa?rapidView=%d";
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "csv", "text/csv; charset=utf-8",
+            "json", "application/json; charset=utf-8");
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final int SERVER_THREADS = 8;
+
+    private final ConnectionProfile baseProfile;
+    private final String username;
+    private final String password;
+    private final FileAdapterFactory fileAdapterFactory;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final URL jiraUrl;
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+    // Выгрузки досок: выполняемые и завершенные (до истечения ttl)
+    private final Map<Long, CompletableFuture<BoardExport>> exports = new ConcurrentHashMap<>();
+    private JiraClient jiraClient;
+
+    /**
+     * Конвертированные задачи доски
+     */
+    private static class BoardExport {
+        private final J2aaConverter converter;
+        private final long createdAt;
+
+        BoardExport(J2aaConverter converter, long createdAt) {
+            this.converter = converter;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * Доска не найдена в jira
+     */
+    private static class BoardNotFoundException extends JiraException {
+        BoardNotFoundException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * @param baseProfile        профиль подключения, параметры которого используются для всех досок.
+     *                           Сервер jira определяется по адресу доски этого профиля
+     * @param username           имя пользователя
+     * @param password           пароль
+     * @param fileAdapterFactory форматы выгрузки
+     * @param port               порт сервера
+     * @param ttl                время хранения конвертированных задач доски
+     * @throws IOException если не удается открыть порт
+     */
+    public BoardExportServer(ConnectionProfile baseProfile, String username, String password,
+                             FileAdapterFactory fileAdapterFactory, int port, Duration ttl) throws IOException {
+        this(baseProfile, username, password, fileAdapterFactory, port, ttl, Clock.systemUTC());
+    }
+
+    /**
+     * @param clock часы, по которым определяется время хранения конвертированных задач доски
+     */
+    BoardExportServer(ConnectionProfile baseProfile, String username, String password,
+                      FileAdapterFactory fileAdapterFactory, int port, Duration ttl, Clock clock) throws IOException {
+        this.baseProfile = baseProfile;
+        this.username = username;
+        this.password = password;
+        this.fileAdapterFactory = fileAdapterFactory;
+        this.ttlMillis = Math.max(ttl.toMillis(), 0);
+        this.clock = clock;
+        this.jiraUrl = new URL(baseProfile.getBoardAddress());
+
+        executor = Executors.newFixedThreadPool(SERVER_THREADS);
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        httpServer.setExecutor(executor);
+        httpServer.createContext(BOARDS_PATH, this::handle);
+    }
+
+    /**
+     * Запускает сервер
+     */
+    public void start() {
+        httpServer.start();
+        logger.info(String.format("Выгрузка досок доступна по адресу http://%s:%d%s{id}.{%s}",
+                httpServer.getAddress().getHostString(), httpServer.getAddress().getPort(), BOARDS_PATH,
+                String.join("|", fileAdapterFactory.getFormats().keySet())));
+    }
+
+    /**
+     * Возвращает порт сервера
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Останавливает сервер и закрывает сессию jira
+     */
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        executor.shutdownNow();
+        synchronized (this) {
+            if (jiraClient != null) {
+                try {
+                    jiraClient.close();
+                } catch (Exception e) {
+                    logger.info(String.format("Ошибка завершения сессии %s: %s",
+                            jiraClient.getServerUrl(), e.getMessage()));
+                }
+                jiraClient = null;
+            }
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Поддерживается только GET");
+                return;
+            }
+            Matcher matcher = BOARD_PATH_PATTERN.matcher(exchange.getRequestURI().getPath());
+            if (!matcher.matches() || !fileAdapterFactory.getFormats().containsKey(matcher.group(2).toLowerCase())) {
+                sendError(exchange, 404, String.format("Ожидается адрес вида %s{id}.{%s}", BOARDS_PATH,
+                        String.join("|", fileAdapterFactory.getFormats().keySet())));
+                return;
+            }
+
+            long boardId = Long.parseLong(matcher.group(1));
+            String format = matcher.group(2).toLowerCase();
+            BoardExport export;
+            try {
+                export = getExport(boardId);
+            } catch (BoardNotFoundException e) {
+                sendError(exchange, 404, e.getMessage());
+                return;
+            } catch (JiraException e) {
+                logger.info(String.format("Доска %d: ошибка выгрузки: %s", boardId, e.getMessage()));
+                sendError(exchange, 502, e.getMessage());
+                return;
+            }
+
+            Exportable exportable = fileAdapterFactory.getAdapter(format);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPES.getOrDefault(format, DEFAULT_CONTENT_TYPE));
+            exchange.sendResponseHeaders(200, 0);
+            try (Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+                export.converter.exportIssues(writer, exportable);
+            }
+        } catch (RuntimeException e) {
+            logger.info(String.format("%s: %s", exchange.getRequestURI(), e.getMessage()));
+        }
+    }
+
+    /**
+     * Возвращает конвертированные задачи доски из памяти или выгружает их из jira. Если доска уже выгружается
+     * по другому запросу, то ожидает завершения этой выгрузки. Проверка выгрузки в памяти и регистрация новой
+     * выгрузки выполняются атомарно, поэтому одновременные запросы доски выполняют одну выгрузку
+     */
+    private BoardExport getExport(long boardId) {
+        exports.values().removeIf(this::isExpired);
+        CompletableFuture<BoardExport> future = new CompletableFuture<>();
+        CompletableFuture<BoardExport> export = exports.compute(boardId,
+                (id, current) -> current == null || isExpired(current) ? future : current);
+        if (export != future) {
+            try {
+                return export.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JiraException("Выгрузка прервана");
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof JiraException
+                        ? (JiraException) e.getCause() : new JiraException(e.getCause());
+            }
+        }
+
+        try {
+            BoardExport fetchedExport = fetchExport(boardId);
+            future.complete(fetchedExport);
+            return fetchedExport;
+        } catch (RuntimeException e) {
+            // Неудачная выгрузка не сохраняется: ее ошибку получают только ожидающие ее запросы
+            exports.remove(boardId, future);
+            future.completeExceptionally(e);
+            throw e instanceof JiraException ? e : new JiraException(e);
+        }
+    }
+
+    private BoardExport fetchExport(long boardId) {
+        long start = System.nanoTime();
+        URL boardUrl;
+        try {
+            boardUrl = new URL(String.format(BOARD_URL_TEMPLATE,
+                    jiraUrl.getProtocol() + "://" + jiraUrl.getAuthority(), boardId));
+        } catch (IOException e) {
+            throw new JiraException(e);
+        }
+
+        J2aaConverter converter = BatchExporter
+                .newConverterBuilder(getJiraClient(), boardUrl, baseProfile, fileAdapterFactory)
+                .withMaxIssuesInMemory(baseProfile.getMaxIssuesInMemory())
+                .build();
+        int issuesCount;
+        try {
+            issuesCount = converter.fetchData();
+        } catch (JiraException e) {
+            // Доска проверяется только после ошибки подключения к ней, чтобы не запрашивать ее у jira
+            // при каждой выгрузке. Ошибки после подключения (например, превышение числа задач в памяти)
+            // и временные ошибки сервера возвращаются без проверки
+            if (converter.getBoardConfig() == null && !(e instanceof RetryableResponseException)) {
+                boolean boardExists;
+                try {
+                    boardExists = getJiraClient().getBoard(boardId).isPresent();
+                } catch (RuntimeException probeError) {
+                    e.addSuppressed(probeError);
+                    throw e;
+                }
+                if (!boardExists) {
+                    throw new BoardNotFoundException(String.format("Доска с id = %d не найдена", boardId));
+                }
+            }
+            throw e;
+        }
+        logger.info(String.format("Доска %d: выгружено %d issues за %d сек", boardId, issuesCount,
+                (System.nanoTime() - start) / 1_000_000_000L));
+        return new BoardExport(converter, clock.millis());
+    }
+
+    private synchronized JiraClient getJiraClient() {
+        if (jiraClient == null) {
+            jiraClient = BatchExporter.newJiraClient(jiraUrl, username, password, baseProfile);
+        }
+        return jiraClient;
+    }
+
+    /**
+     * Проверяет, истекло ли время хранения выгрузки. Выполняемая выгрузка не истекает, а неудачная не хранится
+     */
+    private boolean isExpired(CompletableFuture<BoardExport> export) {
+        if (!export.isDone()) {
+            return false;
+        }
+        return export.isCompletedExceptionally() || clock.millis() - export.join().createdAt >= ttlMillis;
+    }
+
+    private static void sendError(HttpExchange exchange, int statusCode, String message) throws IOException {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(statusCode, body.length);
+        exchange.getResponseBody().write(body);
+    }
+}
@@ -1,5 +1,8 @@
 package club.kanban.j2aa;
 
+import club.kanban.j2aa.j2aaconverter.J2aaConverter;
+import club.kanban.j2aa.jiraclient.AdaptivePageSize;
+import club.kanban.j2aa.jiraclient.HttpClientSettings;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.io.FilenameUtils;
@@ -10,11 +13,12 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.InvalidPropertiesFormatException;
 import java.util.Properties;
 
 @Repository
-public class ConnectionProfile {
+public class ConnectionProfile implements Cloneable {
     // Ключи профиля подключения
     public static final String KEY_BOARD_URL = "board_url";
     public static final String KEY_OUTPUT_FILE = "output_file_name";
@@ -56,9 +60,128 @@ public class ConnectionProfile {
     @Setter
     private String urlPathPrefix;
 
+    @Value("${fetch-concurrency:" + J2aaConverter.DEFAULT_FETCH_CONCURRENCY + "}")
+    @Getter
+    private int fetchConcurrency;
+
+    @Value("${convert-concurrency:0}")
+    @Getter
+    private int convertConcurrency;
+
+    @Value("${streaming-export:false}")
+    @Getter
+    private boolean streamingExport;
+
+    @Value("${max-issues-in-memory:" + J2aaConverter.DEFAULT_MAX_ISSUES_IN_MEMORY + "}")
+    @Getter
+    private int maxIssuesInMemory;
+
+    @Value("${issue-cache-dir:}")
+    @Getter
+    private String issueCacheDir;
+
+    @Value("${batch-concurrency:" + BatchExporter.DEFAULT_BATCH_CONCURRENCY + "}")
+    @Getter
+    private int batchConcurrency;
+
+    @Value("${min-page-size:" + AdaptivePageSize.DEFAULT_MIN_RESULTS + "}")
+    @Getter
+    private int minPageSize;
+
+    @Value("${max-page-size:" + AdaptivePageSize.DEFAULT_MAX_RESULTS + "}")
+    @Getter
+    private int maxPageSize;
+
+    @Value("${http-compression:true}")
+    @Getter
+    private boolean httpCompression;
+
+    @Value("${http-max-connections:16}")
+    @Getter
+    private int httpMaxConnections;
+
+    @Value("${http-idle-timeout:30}")
+    @Getter
+    private int httpIdleTimeout;
+
+    @Value("${http-response-timeout:120}")
+    @Getter
+    private int httpResponseTimeout;
+
+    @Value("${http-event-loop-threads:0}")
+    @Getter
+    private int httpEventLoopThreads;
+
+    @Value("${http2:false}")
+    @Getter
+    private boolean http2;
+
+    @Value("${http-max-retries:5}")
+    @Getter
+    private int httpMaxRetries;
+
+    @Value("${http-max-requests-per-second:0}")
+    @Getter
+    private double httpMaxRequestsPerSecond;
+
+    @Value("${response-cache-dir:}")
+    @Getter
+    private String responseCacheDir;
+
+    @Value("${response-cache-ttl:3600}")
+    @Getter
+    private int responseCacheTtl;
+
+    @Value("${access-token:}")
+    @Getter
+    private String accessToken;
+
+    @Value("${session-file:}")
+    @Getter
+    private String sessionFile;
+
+    @Value("${server-cache-ttl:300}")
+    @Getter
+    private int serverCacheTtl;
+
     @Getter
     private File file;
 
+    /**
+     * Возвращает параметры HTTP соединений с jira
+     *
+     * @return параметры HTTP соединений
+     */
+    public HttpClientSettings getHttpClientSettings() {
+        return HttpClientSettings.builder()
+                .withCompression(httpCompression)
+                .withMaxConnections(httpMaxConnections)
+                .withMaxIdleTime(Duration.ofSeconds(httpIdleTimeout))
+                .withResponseTimeout(Duration.ofSeconds(httpResponseTimeout))
+                .withEventLoopThreads(httpEventLoopThreads)
+                .withHttp2(http2)
+                .withMaxRetries(httpMaxRetries)
+                .withMaxRequestsPerSecond(httpMaxRequestsPerSecond)
+                .withResponseCacheTtl(Duration.ofSeconds(responseCacheTtl))
+                .build();
+    }
+
+    /**
+     * Возвращает копию профиля подключения, включая значения глобальных переменных.
+     * Используется для выгрузки нескольких досок с разными профилями подключения
+     *
+     * @return копия профиля подключения
+     */
+    public ConnectionProfile copy() {
+        try {
+            ConnectionProfile copy = (ConnectionProfile) super.clone();
+            copy.jiraFields = jiraFields != null ? jiraFields.clone() : null;
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * Загружает профиль подключения из заданного файла.
      * В случае успеха этот файл становится активным профилем подключения
@@ -259,12 +259,14 @@ public class J2aaApp extends JFrame implements UILogInterface {
     }
 
     public static void main(String[] args) {
+        boolean headless = J2aaCli.isHeadless(args);
         if (expires != null && expires.isBefore(LocalDate.now())) {
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
             String errorMsg = String.format(
                     "Срок действия данной версии закончился %s.\nОбновите приложение до актуальной версии",
                     expires.format(formatter));
-            showMessageDialog(null, errorMsg);
+            if (!headless)
+                showMessageDialog(null, errorMsg);
             logger.info(errorMsg);
             System.exit(-1);
         }
@@ -283,6 +285,11 @@ public class J2aaApp extends JFrame implements UILogInterface {
             }
         }
 
+        // Без графического интерфейса выгрузка выполняется без Swing и Spring Boot
+        if (headless) {
+            System.exit(J2aaCli.run(args));
+        }
+
 //        SpringApplication.run(J2aaApp.class);
         new SpringApplicationBuilder(J2aaApp.class).headless(false).run(args);
     }
@@ -375,29 +382,23 @@ public class J2aaApp extends JFrame implements UILogInterface {
         enableControls(false);
 
         // Подключаемся к доске и конвертируем данные
-        try (JiraClient jiraClient = JiraClient
-                .builder(boardUrl, getUserName(), getPassword())
-                .withUrlPathPrefix(connectionProfile.getUrlPathPrefix())
-                .build()
-        ) {
+        try (JiraClient jiraClient = BatchExporter.newJiraClient(boardUrl, getUserName(), getPassword(),
+                connectionProfile)) {
             logger.info(String.format("Пользователь %s", getUserName()));
 
-            J2aaConverter converter = J2aaConverter.builder(jiraClient, boardUrl)
-                    .withJiraFields(Arrays.asList(connectionProfile.getJiraFields()))
-                    .withJqlSubFilter(connectionProfile.getJqlSubFilter())
-                    .withUseMaxColumn(connectionProfile.isUseMaxColumn())
-                    .build();
+            J2aaConverter converter = BatchExporter.newConverter(jiraClient, boardUrl, connectionProfile);
 
             LocalDateTime startDate = LocalDateTime.now();
-            if (converter.fetchData() > 0) {
+            int issuesCount = converter.fetchAndExport(connectionProfile.getOutputFileName());
+
+            if (issuesCount > 0) {
                 LocalDateTime endDate = LocalDateTime.now();
                 long timeInSec = Duration.between(startDate, endDate).getSeconds();
                 logger.info(String.format(
                         "Всего получено: %d issues. Время: %d сек. Скорость: %.2f issues/сек",
-                        converter.getConvertedIssues().size(),
+                        issuesCount,
                         timeInSec,
-                        (1.0 * converter.getConvertedIssues().size()) / timeInSec));
-                converter.exportIssues(connectionProfile.getOutputFileName());
+                        (1.0 * issuesCount) / timeInSec));
 
                 if (connectionProfile.isExportBlockersCalendar()) {
                     converter.exportBlockers(connectionProfile.getOutputFileName());
@@ -0,0 +1,377 @@
+package club.kanban.j2aa;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.ConsoleAppender;
+import club.kanban.j2aa.j2aaconverter.J2aaConverter;
+import club.kanban.j2aa.j2aaconverter.fileadapters.FileAdapterFactory;
+import club.kanban.j2aa.jiraclient.JiraClient;
+import club.kanban.j2aa.jiraclient.JiraException;
+import org.apache.commons.cli.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.ResourcePropertySource;
+
+import java.awt.GraphicsEnvironment;
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Запуск без графического интерфейса (например, по расписанию на сервере). Выгрузка выполняется без Swing
+ * и без Spring Boot: в контексте приложения создаются только профиль подключения и форматы выгрузки,
+ * значения по-умолчанию берутся из файла конфигурации. Журнал выводится в stderr, поэтому выгрузку можно
+ * направить в стандартный вывод (--output=-). С параметром --schedule доски выгружаются периодически
+ * в одном процессе (см. ScheduledExporter), с параметром --serve доски выгружаются по HTTP запросам
+ * (см. BoardExportServer). Код завершения: 0 - выгрузка выполнена, 1 - ошибка выгрузки,
+ * 2 - неверные параметры
+ */
+public class J2aaCli {
+    private static final Logger logger = LoggerFactory.getLogger(J2aaCli.class);
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_FAILURE = 1;
+    public static final int EXIT_USAGE = 2;
+
+    public static final String ARG_HEADLESS = "headless";
+    private static final String ARG_HELP = "help";
+    private static final String ARG_CONFIG = "config";
+    private static final String ARG_BOARD_URL = "board-url";
+    private static final String ARG_OUTPUT = "output";
+    private static final String ARG_FORMAT = "format";
+    private static final String ARG_SUB_FILTER = "sub-filter";
+    private static final String ARG_JIRA_FIELDS = "jira-fields";
+    private static final String ARG_USERNAME = "username";
+    private static final String ARG_BLOCKERS = "export-blockers-calendar";
+    private static final String ARG_QUIET = "quiet";
+    private static final String ARG_SCHEDULE = "schedule";
+    private static final String ARG_SERVE = "serve";
+    private static final String PASSWORD_ENV = "J2AA_PASSWORD";
+    private static final String STDOUT = "-";
+    private static final String DEFAULT_FORMAT = "csv";
+    private static final String FILE_ADAPTERS_PACKAGE = "club.kanban.j2aa.j2aaconverter.fileadapters";
+    private static final String LOG_PATTERN = "%-5relative %-5level %logger{35} - %msg%n";
+    private static final List<String> SSL_PROPERTIES = List.of("javax.net.ssl.trustStore",
+            "javax.net.ssl.trustStorePassword", "javax.net.ssl.trustStoreType");
+
+    private J2aaCli() {
+    }
+
+    /**
+     * Проверяет, нужно ли запускать приложение без графического интерфейса: задан параметр --headless
+     * или графическая среда недоступна
+     *
+     * @param args параметры командной строки
+     * @return true, если графический интерфейс не используется
+     */
+    public static boolean isHeadless(String[] args) {
+        return Arrays.asList(args).contains("--" + ARG_HEADLESS) || GraphicsEnvironment.isHeadless();
+    }
+
+    /**
+     * Выполняет выгрузку по параметрам командной строки
+     *
+     * @param args параметры командной строки
+     * @return код завершения
+     */
+    public static int run(String[] args) {
+        Options options = getOptions();
+        CommandLine cmd;
+        try {
+            cmd = new DefaultParser().parse(options, args);
+        } catch (ParseException e) {
+            System.err.println(e.getMessage());
+            printHelp(options, System.err);
+            return EXIT_USAGE;
+        }
+        if (cmd.hasOption(ARG_HELP)) {
+            printHelp(options, System.out);
+            return EXIT_OK;
+        }
+
+        configureLogging(cmd.hasOption(ARG_QUIET) ? Level.WARN : Level.INFO);
+
+        File configFile = new File(cmd.getOptionValue(ARG_CONFIG,
+                System.getProperty("user.home") + "/" + J2aaApp.CONFIG_FILE_NAME));
+        try (AnnotationConfigApplicationContext context = createContext(configFile)) {
+            Environment environment = context.getEnvironment();
+            for (String property : SSL_PROPERTIES) {
+                String value = environment.getProperty(property, "");
+                if (!value.isEmpty()) {
+                    System.setProperty(property, value);
+                }
+            }
+
+            ConnectionProfile profile = context.getBean(ConnectionProfile.class);
+            FileAdapterFactory fileAdapterFactory = context.getBean(FileAdapterFactory.class);
+            String username = cmd.getOptionValue(ARG_USERNAME, environment.getProperty("username", ""));
+
+            if (cmd.hasOption(J2aaInitializer.ARG_PROFILE)) {
+                profile.readConnProfile(new File(cmd.getOptionValue(J2aaInitializer.ARG_PROFILE)));
+            }
+            String password = getPassword(username, environment.getProperty("password", ""), profile);
+            if (cmd.hasOption(ARG_BOARD_URL))
+                profile.setBoardAddress(cmd.getOptionValue(ARG_BOARD_URL));
+            if (cmd.hasOption(ARG_OUTPUT))
+                profile.setOutputFileName(cmd.getOptionValue(ARG_OUTPUT));
+            if (cmd.hasOption(ARG_SUB_FILTER))
+                profile.setJqlSubFilter(cmd.getOptionValue(ARG_SUB_FILTER));
+            if (cmd.hasOption(ARG_JIRA_FIELDS))
+                profile.setJiraFields(cmd.getOptionValue(ARG_JIRA_FIELDS).split("\\s*,\\s*"));
+            if (cmd.hasOption(ARG_BLOCKERS))
+                profile.setExportBlockersCalendar(true);
+
+            Duration interval = null;
+            if (cmd.hasOption(ARG_SCHEDULE)) {
+                try {
+                    interval = Duration.ofMinutes(Long.parseLong(cmd.getOptionValue(ARG_SCHEDULE).trim()));
+                } catch (NumberFormatException e) {
+                    interval = Duration.ZERO;
+                }
+                if (interval.isNegative() || interval.isZero()) {
+                    logger.error(String.format("Неверный интервал выгрузки: %s", cmd.getOptionValue(ARG_SCHEDULE)));
+                    return EXIT_USAGE;
+                }
+            }
+
+            if (cmd.hasOption(ARG_SERVE)) {
+                int port;
+                try {
+                    port = Integer.parseInt(cmd.getOptionValue(ARG_SERVE).trim());
+                } catch (NumberFormatException e) {
+                    port = -1;
+                }
+                if (port < 0 || port > 65535) {
+                    logger.error(String.format("Неверный порт: %s", cmd.getOptionValue(ARG_SERVE)));
+                    return EXIT_USAGE;
+                }
+                if (profile.getBoardAddress() == null || profile.getBoardAddress().isBlank()) {
+                    logger.error("Не задан адрес сервера jira (--board-url, --profile или board-url в файле конфигурации)");
+                    return EXIT_USAGE;
+                }
+                return serve(profile, username, password, fileAdapterFactory, port);
+            }
+
+            List<ConnectionProfile> profiles;
+            if (cmd.hasOption(J2aaInitializer.ARG_BATCH)) {
+                List<String> items = new ArrayList<>();
+                for (String value : cmd.getOptionValues(J2aaInitializer.ARG_BATCH)) {
+                    for (String item : value.split("\\s*,\\s*")) {
+                        if (!item.isBlank()) {
+                            items.add(item.trim());
+                        }
+                    }
+                }
+                BatchExporter batchExporter = new BatchExporter(profile, username, password, fileAdapterFactory);
+                profiles = batchExporter.getProfiles(items);
+                if (interval == null) {
+                    return batchExporter.exportAll(profiles) == 0 ? EXIT_OK : EXIT_FAILURE;
+                }
+            } else {
+                if (profile.getBoardAddress() == null || profile.getBoardAddress().isBlank()) {
+                    logger.error("Не задан адрес доски (--board-url, --profile или board-url в файле конфигурации)");
+                    return EXIT_USAGE;
+                }
+                if (profile.getOutputFileName() == null || profile.getOutputFileName().isBlank()) {
+                    logger.error("Не задан файл для экспорта (--output, --profile или output-file в файле конфигурации)");
+                    return EXIT_USAGE;
+                }
+                if (interval == null) {
+                    return export(profile, username, password, fileAdapterFactory,
+                            cmd.getOptionValue(ARG_FORMAT, DEFAULT_FORMAT));
+                }
+                if (STDOUT.equals(profile.getOutputFileName().trim())) {
+                    logger.error("Выгрузка по расписанию в стандартный вывод не поддерживается");
+                    return EXIT_USAGE;
+                }
+                profiles = List.of(profile);
+            }
+
+            return schedule(profiles, username, password, fileAdapterFactory, interval, profile.getBatchConcurrency());
+        } catch (IOException | JiraException e) {
+            logger.error(e.getMessage());
+            return EXIT_FAILURE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return EXIT_FAILURE;
+        } catch (Exception e) {
+            logger.error("Ошибка выгрузки", e);
+            return EXIT_FAILURE;
+        }
+    }
+
+    /**
+     * Возвращает пароль пользователя. Пароль не принимается параметром командной строки, так как он был бы
+     * виден в списке процессов: он берется из переменной окружения J2AA_PASSWORD, файла конфигурации или
+     * запрашивается с консоли, если пароль нужен для входа (не задан токен доступа или файл сессии)
+     */
+    private static String getPassword(String username, String configPassword, ConnectionProfile profile) {
+        String password = System.getenv(PASSWORD_ENV);
+        if (password != null && !password.isEmpty()) {
+            return password;
+        }
+        if (!configPassword.isEmpty() || username.isEmpty() || !profile.getAccessToken().isBlank()
+                || !profile.getSessionFile().isBlank()) {
+            return configPassword;
+        }
+        Console console = System.console();
+        if (console == null) {
+            return configPassword;
+        }
+        char[] input = console.readPassword("Пароль пользователя %s: ", username);
+        return input != null ? new String(input) : "";
+    }
+
+    private static int export(ConnectionProfile profile, String username, String password,
+                              FileAdapterFactory fileAdapterFactory, String format) throws IOException {
+        long start = System.nanoTime();
+        URL boardUrl = new URL(profile.getBoardAddress());
+        String outputFileName = profile.getOutputFileName().trim();
+        int issuesCount;
+        try (JiraClient jiraClient = BatchExporter.newJiraClient(boardUrl, username, password, profile)) {
+            J2aaConverter converter = BatchExporter.newConverter(jiraClient, boardUrl, profile, fileAdapterFactory);
+            if (STDOUT.equals(outputFileName)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                issuesCount = converter.fetchAndExport(writer, fileAdapterFactory.getAdapter(format));
+                if (profile.isExportBlockersCalendar()) {
+                    logger.warn("Календарь блокировок не выгружается в стандартный вывод");
+                }
+            } else {
+                issuesCount = converter.fetchAndExport(outputFileName);
+                if (issuesCount > 0 && profile.isExportBlockersCalendar()) {
+                    converter.exportBlockers(outputFileName);
+                }
+            }
+        }
+        logger.info(String.format("Выгружено %d issues за %d сек", issuesCount,
+                (System.nanoTime() - start) / 1_000_000_000L));
+        return EXIT_OK;
+    }
+
+    /**
+     * Выгружает доски по расписанию до завершения процесса
+     */
+    private static int schedule(List<ConnectionProfile> profiles, String username, String password,
+                                FileAdapterFactory fileAdapterFactory, Duration interval, int concurrency)
+            throws InterruptedException {
+        ScheduledExporter scheduledExporter = new ScheduledExporter(username, password, fileAdapterFactory,
+                interval, concurrency);
+        Runtime.getRuntime().addShutdownHook(new Thread(scheduledExporter::close, "j2aa-shutdown"));
+        try {
+            scheduledExporter.start(profiles);
+            scheduledExporter.awaitTermination();
+        } finally {
+            scheduledExporter.close();
+        }
+        return EXIT_OK;
+    }
+
+    /**
+     * Выгружает доски по HTTP запросам до завершения процесса
+     */
+    private static int serve(ConnectionProfile profile, String username, String password,
+                             FileAdapterFactory fileAdapterFactory, int port) throws IOException, InterruptedException {
+        BoardExportServer server = new BoardExportServer(profile, username, password, fileAdapterFactory, port,
+                Duration.ofSeconds(profile.getServerCacheTtl()));
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            stopped.countDown();
+        }, "j2aa-shutdown"));
+        server.start();
+        stopped.await();
+        return EXIT_OK;
+    }
+
+    /**
+     * Создает минимальный контекст приложения: профиль подключения и форматы выгрузки.
+     * Значения по-умолчанию берутся из файла конфигурации
+     */
+    private static AnnotationConfigApplicationContext createContext(File configFile) throws IOException {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        if (configFile.exists()) {
+            context.getEnvironment().getPropertySources()
+                    .addLast(new ResourcePropertySource(new FileSystemResource(configFile)));
+        } else {
+            logger.info(String.format("Файл конфигурации '%s' не найден", configFile.getAbsoluteFile()));
+        }
+        context.register(ConnectionProfile.class);
+        context.scan(FILE_ADAPTERS_PACKAGE);
+        context.refresh();
+        return context;
+    }
+
+    /**
+     * Направляет журнал в stderr, чтобы стандартный вывод можно было использовать для выгрузки
+     */
+    static void configureLogging(Level level) {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern(LOG_PATTERN);
+        encoder.start();
+
+        ConsoleAppender<ILoggingEvent> appender = new ConsoleAppender<>();
+        appender.setContext(loggerContext);
+        appender.setTarget("System.err");
+        appender.setEncoder(encoder);
+        appender.start();
+
+        ch.qos.logback.classic.Logger rootLogger = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+        rootLogger.setLevel(level);
+        rootLogger.addAppender(appender);
+    }
+
+    private static Options getOptions() {
+        Options options = new Options();
+        options.addOption(Option.builder().longOpt(ARG_HEADLESS)
+                .desc("запуск без графического интерфейса").build());
+        options.addOption(Option.builder("h").longOpt(ARG_HELP)
+                .desc("вывести описание параметров").build());
+        options.addOption(Option.builder("c").longOpt(ARG_CONFIG).hasArg().argName("file")
+                .desc("файл конфигурации (по-умолчанию ${user.home}/" + J2aaApp.CONFIG_FILE_NAME + ")").build());
+        options.addOption(Option.builder("p").longOpt(J2aaInitializer.ARG_PROFILE).hasArg().argName("file")
+                .desc("профиль подключения").build());
+        options.addOption(Option.builder("b").longOpt(ARG_BOARD_URL).hasArg().argName("url")
+                .desc("адрес доски").build());
+        options.addOption(Option.builder("o").longOpt(ARG_OUTPUT).hasArg().argName("file")
+                .desc("файл для экспорта или " + STDOUT + " для вывода в stdout").build());
+        options.addOption(Option.builder("f").longOpt(ARG_FORMAT).hasArg().argName("ext")
+                .desc("формат вывода в stdout (по-умолчанию " + DEFAULT_FORMAT + ")").build());
+        options.addOption(Option.builder("s").longOpt(ARG_SUB_FILTER).hasArg().argName("jql")
+                .desc("дополнительный jql фильтр").build());
+        options.addOption(Option.builder("j").longOpt(ARG_JIRA_FIELDS).hasArg().argName("fields")
+                .desc("список полей через запятую").build());
+        options.addOption(Option.builder("u").longOpt(ARG_USERNAME).hasArg().argName("name")
+                .desc("имя пользователя (пароль: переменная окружения " + PASSWORD_ENV
+                        + ", файл конфигурации или запрос с консоли)").build());
+        options.addOption(Option.builder().longOpt(ARG_BLOCKERS)
+                .desc("выгружать календарь блокировок").build());
+        options.addOption(Option.builder().longOpt(J2aaInitializer.ARG_BATCH).hasArg().argName("items")
+                .desc("пакетная выгрузка: профили подключения и/или ссылки на доски через запятую").build());
+        options.addOption(Option.builder().longOpt(ARG_SCHEDULE).hasArg().argName("minutes")
+                .desc("выгружать доски повторно каждые minutes минут, не завершая работу").build());
+        options.addOption(Option.builder().longOpt(ARG_SERVE).hasArg().argName("port")
+                .desc("выгружать доски по запросам http://localhost:port/boards/{id}.{csv|json}").build());
+        options.addOption(Option.builder("q").longOpt(ARG_QUIET)
+                .desc("выводить в журнал только предупреждения и ошибки").build());
+        return options;
+    }
+
+    private static void printHelp(Options options, PrintStream out) {
+        new HelpFormatter().printHelp(new PrintWriter(out, true), HelpFormatter.DEFAULT_WIDTH,
+                "java -jar j2aa.jar --headless [options]", null, options,
+                HelpFormatter.DEFAULT_LEFT_PAD, HelpFormatter.DEFAULT_DESC_PAD, null);
+    }
+}
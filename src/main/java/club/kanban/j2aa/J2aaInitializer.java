@@ -3,18 +3,22 @@ package club.kanban.j2aa;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.Appender;
+import club.kanban.j2aa.jiraclient.JiraException;
 import club.kanban.j2aa.uilogger.UILogger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
 import javax.swing.*;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import static javax.swing.JOptionPane.showMessageDialog;
 
@@ -30,6 +34,7 @@ public class J2aaInitializer implements ApplicationRunner {
     J2aaApp app;
 
     public static final String ARG_PROFILE = "profile";
+    public static final String ARG_BATCH = "batch";
 
     @Override
     public void run(ApplicationArguments args) {
@@ -64,6 +69,50 @@ public class J2aaInitializer implements ApplicationRunner {
         if (!app.getTrustStoreType().isEmpty()) {
             System.setProperty("javax.net.ssl.trustStoreType", app.getTrustStoreType());
         }
+
+        if (args.containsOption(ARG_BATCH)) {
+            new Thread(() -> runBatch(args.getOptionValues(ARG_BATCH)), "j2aa-batch").start();
+        }
+    }
+
+    /**
+     * Пакетная выгрузка досок, заданных параметрами --batch (файлы профилей подключения или ссылки на доски,
+     * несколько значений можно указать через запятую). По завершении приложение закрывается с кодом 0,
+     * если все доски выгружены, или 1 в противном случае
+     *
+     * @param values значения параметров --batch
+     */
+    private void runBatch(List<String> values) {
+        int exitCode = runBatch(new BatchExporter(connectionProfile, app.getUserName(), app.getPassword()), values);
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+    /**
+     * Выполняет пакетную выгрузку досок, заданных параметрами --batch
+     *
+     * @param batchExporter пакетная выгрузка
+     * @param values        значения параметров --batch
+     * @return код завершения: 0, если все доски выгружены, или 1 в противном случае
+     */
+    static int runBatch(BatchExporter batchExporter, List<String> values) {
+        List<String> items = new ArrayList<>();
+        for (String value : values) {
+            for (String item : value.split("\\s*,\\s*")) {
+                if (!item.isBlank()) {
+                    items.add(item.trim());
+                }
+            }
+        }
+
+        try {
+            return batchExporter.exportAll(batchExporter.getProfiles(items)) == 0 ? 0 : 1;
+        } catch (IOException | JiraException e) {
+            LoggerFactory.getLogger(J2aaInitializer.class).info(e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
     }
 }
 
@@ -0,0 +1,206 @@
+package club.kanban.j2aa;
+
+import club.kanban.j2aa.j2aaconverter.J2aaConverter;
+import club.kanban.j2aa.j2aaconverter.fileadapters.FileAdapterFactory;
+import club.kanban.j2aa.jiraclient.JiraClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Периодическая выгрузка досок в одном процессе (режим службы). JiraClient каждого сервера jira
+ * (сессия, пул соединений, кэш ответов) создается один раз и используется всеми выгрузками.
+ * Первые выгрузки досок равномерно распределены по интервалу, чтобы доски не запрашивались у jira одновременно.
+ * Если предыдущая выгрузка доски еще выполняется, то очередной запуск пропускается.
+ * Файлы выгрузки сначала записываются во временный каталог и затем атомарно заменяют предыдущие
+ */
+public class ScheduledExporter implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledExporter.class);
+    private static final String TEMP_DIR_PREFIX = ".j2aa-";
+
+    private final String username;
+    private final String password;
+    private final FileAdapterFactory fileAdapterFactory;
+    private final Duration interval;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService executor;
+    private final Map<String, JiraClient> jiraClients = new ConcurrentHashMap<>();
+
+    /**
+     * @param username           имя пользователя
+     * @param password           пароль
+     * @param fileAdapterFactory форматы выгрузки. Если не задана, то используется FileAdapterFactory
+     *                           из контекста приложения
+     * @param interval           интервал между выгрузками каждой доски
+     * @param concurrency        число досок, выгружаемых одновременно
+     */
+    public ScheduledExporter(String username, String password, FileAdapterFactory fileAdapterFactory,
+                             Duration interval, int concurrency) {
+        this(username, password, fileAdapterFactory, interval,
+                Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "j2aa-scheduler");
+                    thread.setDaemon(true);
+                    return thread;
+                }),
+                Executors.newFixedThreadPool(concurrency > 0 ? concurrency : BatchExporter.DEFAULT_BATCH_CONCURRENCY));
+    }
+
+    /**
+     * @param scheduler планировщик запусков выгрузки досок
+     * @param executor  исполнитель выгрузок досок
+     */
+    ScheduledExporter(String username, String password, FileAdapterFactory fileAdapterFactory,
+                      Duration interval, ScheduledExecutorService scheduler, ExecutorService executor) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Интервал выгрузки должен быть больше 0");
+        }
+        this.username = username;
+        this.password = password;
+        this.fileAdapterFactory = fileAdapterFactory;
+        this.interval = interval;
+        this.scheduler = scheduler;
+        this.executor = executor;
+    }
+
+    /**
+     * Запускает периодическую выгрузку досок заданных профилей подключения
+     *
+     * @param profiles профили подключения
+     */
+    public void start(List<ConnectionProfile> profiles) {
+        long intervalMillis = interval.toMillis();
+        logger.info(String.format("Выгрузка %d досок каждые %d мин", profiles.size(), interval.toMinutes()));
+        for (int i = 0; i < profiles.size(); i++) {
+            long initialDelay = intervalMillis * i / profiles.size();
+            scheduler.scheduleAtFixedRate(new BoardExport(profiles.get(i)),
+                    initialDelay, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Ожидает завершения работы (close() или прерывания потока)
+     *
+     * @throws InterruptedException если ожидание прервано
+     */
+    public void awaitTermination() throws InterruptedException {
+        while (!scheduler.awaitTermination(1, TimeUnit.DAYS)) {
+            logger.debug("Выгрузка по расписанию продолжается");
+        }
+    }
+
+    /**
+     * Останавливает выгрузку и закрывает сессии jira
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        jiraClients.values().forEach(jiraClient -> {
+            try {
+                jiraClient.close();
+            } catch (Exception e) {
+                logger.info(String.format("Ошибка завершения сессии %s: %s",
+                        jiraClient.getServerUrl(), e.getMessage()));
+            }
+        });
+        jiraClients.clear();
+    }
+
+    /**
+     * Запуск выгрузки одной доски по расписанию
+     */
+    private class BoardExport implements Runnable {
+        private final ConnectionProfile profile;
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        BoardExport(ConnectionProfile profile) {
+            this.profile = profile;
+        }
+
+        @Override
+        public void run() {
+            if (!running.compareAndSet(false, true)) {
+                logger.info(String.format("%s: предыдущая выгрузка еще выполняется, запуск пропущен",
+                        profile.getBoardAddress()));
+                return;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        exportBoard(profile);
+                    } finally {
+                        running.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                running.set(false);
+            }
+        }
+    }
+
+    private void exportBoard(ConnectionProfile profile) {
+        long start = System.nanoTime();
+        try {
+            URL boardUrl = new URL(profile.getBoardAddress());
+            JiraClient jiraClient = jiraClients.computeIfAbsent(boardUrl.getProtocol() + "://" + boardUrl.getAuthority(),
+                    server -> BatchExporter.newJiraClient(boardUrl, username, password, profile));
+            J2aaConverter converter = BatchExporter.newConverter(jiraClient, boardUrl, profile, fileAdapterFactory);
+            int issuesCount = exportAtomically(converter, profile);
+            logger.info(String.format("%s: выгружено %d issues в %s за %d сек", boardUrl, issuesCount,
+                    profile.getOutputFileName(), (System.nanoTime() - start) / 1_000_000_000L));
+        } catch (Exception e) {
+            logger.info(String.format("%s: ошибка выгрузки: %s", profile.getBoardAddress(), e.getMessage()));
+        }
+    }
+
+    /**
+     * Выгружает задачи (и календарь блокировок) во временный каталог рядом с файлом для экспорта и затем
+     * переносит полученные файлы на место предыдущих. Незавершенная выгрузка не затрагивает предыдущие файлы
+     *
+     * @return число выгруженных задач
+     */
+    static int exportAtomically(J2aaConverter converter, ConnectionProfile profile) throws IOException {
+        Path outputFile = Path.of(profile.getOutputFileName().trim()).toAbsolutePath();
+        Path outputDir = outputFile.getParent();
+        Files.createDirectories(outputDir);
+
+        Path tempDir = Files.createTempDirectory(outputDir, TEMP_DIR_PREFIX);
+        try {
+            String tempOutputFileName = tempDir.resolve(outputFile.getFileName()).toString();
+            int issuesCount = converter.fetchAndExport(tempOutputFileName);
+            if (issuesCount > 0 && profile.isExportBlockersCalendar()) {
+                converter.exportBlockers(tempOutputFileName);
+            }
+
+            List<Path> files;
+            try (Stream<Path> stream = Files.list(tempDir)) {
+                files = stream.collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                Files.move(file, outputDir.resolve(file.getFileName()),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return issuesCount;
+        } finally {
+            FileSystemUtils.deleteRecursively(tempDir);
+        }
+    }
+}
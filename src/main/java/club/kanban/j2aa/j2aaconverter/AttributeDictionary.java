@@ -0,0 +1,121 @@
+package club.kanban.j2aa.j2aaconverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Словарь значений атрибутов задач одной выгрузки. Повторяющиеся значения (тип задачи, приоритет, исполнитель,
+ * метки и т.п.) хранятся в единственном экземпляре, а задачи ссылаются на них по целочисленным кодам.
+ * Форматы выгрузки могут получать значение, преобразованное для записи (например, экранированное),
+ * которое вычисляется один раз для каждого кода. Коды выдаются одновременно из нескольких потоков конвертации
+ */
+public class AttributeDictionary {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<Object, Integer> codes = new ConcurrentHashMap<>();
+    // Значения по кодам. Массив заменяется при увеличении (guarded by this для записи)
+    private volatile Object[] values = new Object[INITIAL_CAPACITY];
+    private int size;
+    private final Map<Function<Object, String>, FormattedValues> formattedValues = new ConcurrentHashMap<>();
+
+    /**
+     * Значения, преобразованные одним форматом
+     */
+    private static class FormattedValues {
+        private String[] values = new String[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Возвращает код строкового значения, добавляя значение в словарь при необходимости
+     *
+     * @param value значение. null кодируется как пустая строка
+     * @return код значения
+     */
+    public int encode(String value) {
+        return encodeCanonical(value != null ? value : "");
+    }
+
+    /**
+     * Возвращает код списка строк. Список сохраняется в словаре неизменяемым, а его элементы -
+     * в единственном экземпляре
+     *
+     * @param value список значений
+     * @return код списка
+     */
+    public int encode(List<String> value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+
+        List<String> canonical = new ArrayList<>(value.size());
+        for (String element : value) {
+            canonical.add((String) decode(encode(element)));
+        }
+        return encodeCanonical(List.copyOf(canonical));
+    }
+
+    private int encodeCanonical(Object value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+
+        synchronized (this) {
+            code = codes.get(value);
+            if (code == null) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size] = value;
+                code = size++;
+                codes.put(value, code);
+            }
+            return code;
+        }
+    }
+
+    /**
+     * Возвращает значение по коду: строку или неизменяемый список строк
+     *
+     * @param code код значения
+     * @return значение
+     */
+    public Object decode(int code) {
+        return values[code];
+    }
+
+    /**
+     * Возвращает значение, преобразованное форматом выгрузки. Преобразование выполняется один раз для каждого
+     * кода, поэтому formatter должен быть одним и тем же объектом (например, статической константой)
+     *
+     * @param code      код значения
+     * @param formatter преобразование значения
+     * @return преобразованное значение
+     */
+    public String format(int code, Function<Object, String> formatter) {
+        FormattedValues formatted = formattedValues.computeIfAbsent(formatter, f -> new FormattedValues());
+        synchronized (formatted) {
+            if (code >= formatted.values.length) {
+                formatted.values = Arrays.copyOf(formatted.values, Math.max(code + 1, formatted.values.length * 2));
+            }
+            String value = formatted.values[code];
+            if (value == null) {
+                value = formatter.apply(decode(code));
+                formatted.values[code] = value;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Возвращает число значений в словаре
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
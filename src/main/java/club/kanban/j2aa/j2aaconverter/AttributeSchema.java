@@ -0,0 +1,173 @@
+package club.kanban.j2aa.j2aaconverter;
+
+import club.kanban.j2aa.jiraclient.dto.issue.Issue;
+import club.kanban.j2aa.jiraclient.dto.issue.fields.Fields;
+import club.kanban.j2aa.jiraclient.dto.issue.fields.Resource;
+import lombok.Getter;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Состав атрибутов задач выгрузки, определяемый один раз по списку полей jira. Каждому атрибуту назначается
+ * позиция (slot), по которой его значение хранится в задаче и выводится форматами выгрузки
+ */
+public class AttributeSchema {
+    private static final String SUMMARY_FIELD = "summary";
+
+    /**
+     * Атрибут задачи, получаемый из поля jira
+     */
+    public enum Attribute {
+        PROJECT_KEY("projectkey", "Project Key") {
+            @Override
+            int encode(Issue issue, Fields fields, AttributeDictionary dictionary) {
+                return dictionary.encode(
+                        issue.getKey() != null ? issue.getKey().substring(0, issue.getKey().indexOf("-")) : "");
+            }
+        },
+        PROJECT("project", "Project") {
+            @Override
+            int encode(Issue issue, Fields fields, AttributeDictionary dictionary) {
+                return dictionary.encode(fields.getProject() != null ? fields.getProject().getName() : "");
+            }
+        },
+        ISSUE_TYPE("issuetype", "Issue Type") {
+            @Override
+            int encode(Issue issue, Fields fields, AttributeDictionary dictionary) {
+                return dictionary.encode(fields.getIssueType() != null ? fields.getIssueType().getName() : "");
+            }
+        },
+        ASSIGNEE("assignee", "Assignee") {
+            @Override
+            int encode(Issue issue, Fields fields, AttributeDictionary dictionary) {
+                return dictionary.encode(fields.getAssignee() != null ? fields.getAssignee().getDisplayName() : "");
+            }
+        },
+        REPORTER("reporter", "Reporter") {
+            @Override
+            int encode(Issue issue, Fields fields, AttributeDictionary dictionary) {
+                return dictionary.encode(fields.getReporter() != null ? fields.getReporter().getDisplayName() : "");
+            }
+        },
+        PRIORITY("priority", "Priority") {
+            @Override
+            int encode(Issue issue, Fields fields, AttributeDictionary dictionary) {
+                return dictionary.encode(fields.getPriority() != null ? fields.getPriority().getName() : "");
+            }
+        },
+        LABELS("labels", "Labels") {
+            @Override
+            int encode(Issue issue, Fields fields, AttributeDictionary dictionary) {
+                return dictionary.encode(fields.getLabels() != null ? fields.getLabels() : List.of());
+            }
+        },
+        COMPONENTS("components", "Components") {
+            @Override
+            int encode(Issue issue, Fields fields, AttributeDictionary dictionary) {
+                return dictionary.encode(names(fields.getComponents()));
+            }
+        },
+        FIX_VERSIONS("fixVersions", "Fix Versions") {
+            @Override
+            int encode(Issue issue, Fields fields, AttributeDictionary dictionary) {
+                return dictionary.encode(names(fields.getFixVersions()));
+            }
+        },
+        EPIC_KEY("epic", "Epic Key") {
+            @Override
+            int encode(Issue issue, Fields fields, AttributeDictionary dictionary) {
+                return dictionary.encode(fields.getEpic() != null ? fields.getEpic().getKey() : "");
+            }
+        },
+        EPIC_NAME("epic", "Epic Name") {
+            @Override
+            int encode(Issue issue, Fields fields, AttributeDictionary dictionary) {
+                return dictionary.encode(fields.getEpic() != null ? fields.getEpic().getName() : "");
+            }
+        };
+
+        @Getter
+        private final String jiraField;
+        @Getter
+        private final String name;
+
+        Attribute(String jiraField, String name) {
+            this.jiraField = jiraField;
+            this.name = name;
+        }
+
+        /**
+         * Возвращает код значения атрибута задачи в словаре выгрузки
+         */
+        abstract int encode(Issue issue, Fields fields, AttributeDictionary dictionary);
+
+        private static List<String> names(List<? extends Resource> resources) {
+            return resources != null
+                    ? resources.stream().map(Resource::getName).collect(Collectors.toList())
+                    : List.of();
+        }
+    }
+
+    private final Attribute[] attributes;
+    private final Map<String, Integer> slots;
+    @Getter
+    private final List<String> names;
+    // Выгружается ли summary (как Name задачи)
+    @Getter
+    private final boolean summary;
+
+    /**
+     * @param jiraFields поля jira в порядке вывода. Неизвестные поля (и summary, которое выводится как Name)
+     *                   не образуют атрибутов, повторяющиеся поля учитываются один раз
+     */
+    public AttributeSchema(List<String> jiraFields) {
+        Map<String, Attribute> byName = new LinkedHashMap<>();
+        summary = jiraFields != null && jiraFields.contains(SUMMARY_FIELD);
+        if (jiraFields != null) {
+            for (String jiraField : jiraFields) {
+                for (Attribute attribute : Attribute.values()) {
+                    if (attribute.getJiraField().equals(jiraField)) {
+                        byName.putIfAbsent(attribute.getName(), attribute);
+                    }
+                }
+            }
+        }
+
+        attributes = byName.values().toArray(new Attribute[0]);
+        slots = new HashMap<>(attributes.length * 2);
+        for (int i = 0; i < attributes.length; i++) {
+            slots.put(attributes[i].getName(), i);
+        }
+        names = List.copyOf(byName.keySet());
+    }
+
+    /**
+     * Возвращает число атрибутов
+     */
+    public int size() {
+        return attributes.length;
+    }
+
+    /**
+     * Возвращает позицию атрибута
+     *
+     * @param name название атрибута
+     * @return позиция или -1, если атрибут не выгружается
+     */
+    public int getSlot(String name) {
+        return slots.getOrDefault(name, -1);
+    }
+
+    /**
+     * Возвращает коды значений атрибутов задачи в словаре выгрузки по позициям атрибутов
+     */
+    int[] encode(Issue issue, AttributeDictionary dictionary) {
+        int[] codes = new int[attributes.length];
+        Fields fields = issue.getFields();
+        for (int i = 0; i < attributes.length; i++) {
+            codes[i] = attributes[i].encode(issue, fields, dictionary);
+        }
+        return codes;
+    }
+}
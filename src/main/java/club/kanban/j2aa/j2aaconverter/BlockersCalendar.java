@@ -3,20 +3,30 @@ package club.kanban.j2aa.j2aaconverter;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
-import java.time.Duration;
 import java.time.LocalDate;
-import java.time.ZoneId;
-import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.TimeZone;
+import java.util.function.LongUnaryOperator;
 
 /**
- * Класс для представления календаря блокеров - число заблочированных задач на каждый день в заданном диапазоне
+ * Класс для представления календаря блокеров - число заблочированных задач на каждый день в заданном диапазоне.
+ * Дни календаря индексируются по номеру дня от 1970-01-01 (LocalDate.toEpochDay()). Диапазоны блокировок
+ * накапливаются в массиве разностей, поэтому добавление диапазона не зависит от его длины, а значения по дням
+ * вычисляются один раз при первом обращении к ним после изменений. Экземпляр не потокобезопасен: при
+ * параллельной обработке каждый поток заполняет свой календарь, после чего календари объединяются методом merge()
  */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class BlockersCalendar {
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
     private LocalDate startDate;
     private LocalDate endDate;
+    private long startDay;
+    private long endDay;
+    // Разности значений соседних дней: diffs[i] = values[i] - values[i - 1]
+    private int[] diffs;
+    // Значения по дням, вычисленные по diffs. null, если календарь изменялся после вычисления
     private int[] values;
 
     /**
@@ -34,9 +44,9 @@ public class BlockersCalendar {
         BlockersCalendar blockersCalendar = new BlockersCalendar();
         blockersCalendar.startDate = startDate;
         blockersCalendar.endDate = endDate;
-        int daysBetween = (int) Duration.between(startDate.atStartOfDay(), endDate.atStartOfDay()).toDays() + 1;
-        blockersCalendar.values = new int[daysBetween];
-        Arrays.fill(blockersCalendar.values, 0);
+        blockersCalendar.startDay = startDate.toEpochDay();
+        blockersCalendar.endDay = endDate.toEpochDay();
+        blockersCalendar.diffs = new int[Math.toIntExact(blockersCalendar.endDay - blockersCalendar.startDay + 2)];
         return blockersCalendar;
     }
 
@@ -48,8 +58,37 @@ public class BlockersCalendar {
      * @throws ArrayIndexOutOfBoundsException в случае когда date вне диапазона дат календаря
      */
     public int getValue(LocalDate date) {
-        int index = (int) Duration.between(startDate.atStartOfDay(), date.atStartOfDay()).toDays();
-        return values[index];
+        return getValue(date.toEpochDay());
+    }
+
+    /**
+     * Возвращает актуальное значение на день
+     *
+     * @param epochDay номер дня от 1970-01-01
+     * @return число блокеров
+     * @throws ArrayIndexOutOfBoundsException в случае когда день вне диапазона дат календаря
+     */
+    public int getValue(long epochDay) {
+        if (epochDay < startDay || epochDay > endDay) {
+            throw new ArrayIndexOutOfBoundsException((int) (epochDay - startDay));
+        }
+        return getValues()[(int) (epochDay - startDay)];
+    }
+
+    /**
+     * Вычисляет значения по дням (префиксные суммы разностей), если календарь изменялся
+     */
+    private int[] getValues() {
+        if (values == null) {
+            int[] sums = new int[diffs.length - 1];
+            int sum = 0;
+            for (int i = 0; i < sums.length; i++) {
+                sum += diffs[i];
+                sums[i] = sum;
+            }
+            values = sums;
+        }
+        return values;
     }
 
     /**
@@ -60,11 +99,38 @@ public class BlockersCalendar {
      * @throws ArrayIndexOutOfBoundsException в случае если startRange или rangeRange выходят за пределы календаря
      */
     public void incrementRange(LocalDate startRange, LocalDate endRange) {
-        int startIndex = (int) Duration.between(startDate.atStartOfDay(), startRange.atStartOfDay()).toDays();
-        int count = (int) Duration.between(startRange.atStartOfDay(), endRange.atStartOfDay()).toDays() + 1;
-        for (int i = startIndex; i < startIndex + count; i++) {
-            values[i]++;
+        incrementRange(startRange.toEpochDay(), endRange.toEpochDay());
+    }
+
+    private void incrementRange(long startRangeDay, long endRangeDay) {
+        if (startRangeDay > endRangeDay) {
+            return;
         }
+        if (startRangeDay < startDay || endRangeDay > endDay) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+        diffs[(int) (startRangeDay - startDay)]++;
+        diffs[(int) (endRangeDay - startDay) + 1]--;
+        values = null;
+    }
+
+    /**
+     * Добавляет к календарю значения другого календаря с тем же диапазоном дат
+     *
+     * @param other календарь блокеров
+     * @return этот календарь
+     * @throws IllegalArgumentException если диапазоны дат календарей не совпадают
+     */
+    public BlockersCalendar merge(BlockersCalendar other) {
+        if (startDay != other.startDay || endDay != other.endDay) {
+            throw new IllegalArgumentException(String.format("Диапазон календаря %s - %s не совпадает с %s - %s",
+                    other.startDate, other.endDate, startDate, endDate));
+        }
+        for (int i = 0; i < diffs.length; i++) {
+            diffs[i] += other.diffs[i];
+        }
+        values = null;
+        return this;
     }
 
     /**
@@ -74,32 +140,39 @@ public class BlockersCalendar {
      */
     public void importBlockerChanges(List<ChangeLogItem> blockerChanges) {
         blockerChanges.sort(Comparator.comparing(ChangeLogItem::getDate));
+        importBlockerChanges(blockerChanges.stream().mapToLong(item -> item.getDate().getTime()).toArray(),
+                LongUnaryOperator.identity());
+    }
+
+    /**
+     * Импортирует в календарь данные о блокировках от задачи
+     *
+     * @param flagChanges изменения флага блокировки задачи по возрастанию времени
+     *                    в упакованном виде (см. ConvertedIssue.getFlagChanges())
+     */
+    public void importFlagChanges(long[] flagChanges) {
+        importBlockerChanges(flagChanges, ConvertedIssue::getFlagChangeTime);
+    }
 
+    private void importBlockerChanges(long[] changes, LongUnaryOperator timeOf) {
+        TimeZone timeZone = TimeZone.getDefault();
         // Достраиваем цепочку блокировок
-        LocalDate startBlockDate = null;
-        for (ChangeLogItem changeLogItem : blockerChanges) {
-            LocalDate changeDate = LocalDate.from(changeLogItem.getDate().toInstant()
-                    .atZone(ZoneId.systemDefault()).toLocalDate());
-            if (startBlockDate == null) {
-                startBlockDate = changeDate;
+        boolean blocked = false;
+        long startBlockDay = 0;
+        for (long change : changes) {
+            long time = timeOf.applyAsLong(change);
+            long changeDay = Math.floorDiv(time + timeZone.getOffset(time), MILLIS_PER_DAY);
+            if (!blocked) {
+                startBlockDay = changeDay;
+                blocked = true;
             } else {
-                try {
-                    incrementRange(
-                            startBlockDate.isAfter(startDate) ? startBlockDate : startDate,
-                            changeDate.isBefore(endDate) ? changeDate : endDate);
-                } catch (ArrayIndexOutOfBoundsException ignored) {
-                }
-                startBlockDate = null;
+                incrementRange(Math.max(startBlockDay, startDay), Math.min(changeDay, endDay));
+                blocked = false;
             }
         }
         //Если последний блокер не закрыт, то добавляем период блокировки до конца календаря
-        if (startBlockDate != null) {
-            try {
-                incrementRange(
-                        startBlockDate.isAfter(startDate) ? startBlockDate : startDate,
-                        endDate);
-            } catch (ArrayIndexOutOfBoundsException ignored) {
-            }
+        if (blocked) {
+            incrementRange(Math.max(startBlockDay, startDay), endDay);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,116 @@
+package club.kanban.j2aa.j2aaconverter;
+
+import club.kanban.j2aa.jiraclient.dto.boardconfig.BoardConfig;
+import club.kanban.j2aa.jiraclient.dto.boardconfig.columnconfig.column.Column;
+import club.kanban.j2aa.jiraclient.dto.boardconfig.columnconfig.column.Status;
+import lombok.Getter;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Модель доски, подготовленная один раз для конвертации всех задач выгрузки: таблица соответствия статусов
+ * столбцам доски и префикс ссылок на задачи. Неизменяема (кроме кэша префикса ссылок), поэтому используется
+ * одновременно всеми потоками конвертации
+ */
+public class BoardModel {
+    public static final int NO_COLUMN = -1;
+    private static final String BROWSE_PATH = "/browse/";
+
+    @Getter
+    private final int columnsCount;
+    // Отсортированные идентификаторы статусов и соответствующие им индексы столбцов
+    private final long[] statusIds;
+    private final int[] columnIndexes;
+
+    private volatile BrowseLinkPrefix browseLinkPrefix;
+
+    /**
+     * Префикс ссылок на задачи, вычисленный по адресу REST API задачи (без идентификатора задачи)
+     */
+    private static class BrowseLinkPrefix {
+        private final String restBase;
+        private final String prefix;
+
+        BrowseLinkPrefix(String restBase, String prefix) {
+            this.restBase = restBase;
+            this.prefix = prefix;
+        }
+    }
+
+    public BoardModel(BoardConfig boardConfig) {
+        List<Column> columns = boardConfig.getColumnConfig().getColumns();
+        columnsCount = columns.size();
+
+        // Если статус привязан к нескольким столбцам, то используется последний
+        Map<Long, Integer> status2Column = new HashMap<>(20);
+        for (int i = 0; i < columns.size(); i++) {
+            for (Status status : columns.get(i).getStatuses()) {
+                status2Column.put(status.getId(), i);
+            }
+        }
+
+        statusIds = status2Column.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        columnIndexes = new int[statusIds.length];
+        for (int i = 0; i < statusIds.length; i++) {
+            columnIndexes[i] = status2Column.get(statusIds[i]);
+        }
+    }
+
+    /**
+     * Возвращает индекс столбца доски, к которому привязан статус
+     *
+     * @param statusId идентификатор статуса
+     * @return индекс столбца или NO_COLUMN, если статус не привязан ни к одному из столбцов
+     */
+    public int getColumnIndex(long statusId) {
+        int i = Arrays.binarySearch(statusIds, statusId);
+        return i >= 0 ? columnIndexes[i] : NO_COLUMN;
+    }
+
+    /**
+     * Возвращает ссылку на задачу в jira. Префикс ссылки вычисляется по адресу REST API задачи
+     * и используется повторно для остальных задач того же сервера
+     *
+     * @param self адрес REST API задачи
+     * @param key  ключ задачи
+     * @return ссылка на задачу или пустая строка, если адрес задачи некорректен
+     */
+    public String getBrowseLink(String self, String key) {
+        if (self == null) {
+            return "";
+        }
+
+        String restBase = self.substring(0, Math.max(self.lastIndexOf('/'), 0));
+        BrowseLinkPrefix cached = browseLinkPrefix;
+        if (cached == null || !cached.restBase.equals(restBase)) {
+            try {
+                cached = new BrowseLinkPrefix(restBase, newBrowseLinkPrefix(new URL(self)));
+            } catch (MalformedURLException e) {
+                return "";
+            }
+            browseLinkPrefix = cached;
+        }
+        return cached.prefix + key;
+    }
+
+    private static String newBrowseLinkPrefix(URL restApiUrl) {
+        String pathPrefix;
+        int startPos = restApiUrl.getPath().indexOf("/rest/agile");
+        if (startPos > 0) {
+            pathPrefix = restApiUrl.getPath().substring(0, startPos);
+        } else {
+            pathPrefix = "";
+        }
+        return restApiUrl.getProtocol()
+                + "://"
+                + restApiUrl.getHost()
+                + (restApiUrl.getPort() == -1 ? "" : restApiUrl.getPort())
+                + pathPrefix
+                + BROWSE_PATH;
+    }
+}
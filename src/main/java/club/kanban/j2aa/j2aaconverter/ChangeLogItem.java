@@ -44,6 +44,13 @@ public class ChangeLogItem {
         return new ChangeLogItem(date, from, fromString, to, toString);
     }
 
+    /**
+     * Изменение флага с заданными значениями до и после изменения
+     */
+    static ChangeLogItem of(Date date, String fromString, String toString) {
+        return new ChangeLogItem(date, null, fromString, null, toString);
+    }
+
     /**
      * Для использования в юнит тестах BlockersCalendar. Отображает смену статуса Impediment
      * @param date дата установки или снятия флака Impediment
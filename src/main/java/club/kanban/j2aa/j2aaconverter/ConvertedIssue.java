@@ -1,25 +1,21 @@
 package club.kanban.j2aa.j2aaconverter;
 
 import club.kanban.j2aa.jiraclient.JiraException;
-import club.kanban.j2aa.jiraclient.dto.boardconfig.BoardConfig;
-import club.kanban.j2aa.jiraclient.dto.boardconfig.columnconfig.column.Column;
-import club.kanban.j2aa.jiraclient.dto.boardconfig.columnconfig.column.Status;
 import club.kanban.j2aa.jiraclient.dto.issue.Issue;
 import club.kanban.j2aa.jiraclient.dto.issue.changelog.history.History;
 import club.kanban.j2aa.jiraclient.dto.issue.changelog.history.HistoryItem;
-import club.kanban.j2aa.jiraclient.dto.issue.fields.Fields;
 import club.kanban.j2aa.jiraclient.dto.issue.fields.Resource;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
+
+import static club.kanban.j2aa.j2aaconverter.BoardModel.NO_COLUMN;
 
 /**
  * Класс для аггрегации атрибутов, подлежащих экспорту, их последовательности,
@@ -34,19 +30,30 @@ public class ConvertedIssue {
     private String link;
     @Getter
     private String name;
+    // Коды значений атрибутов в словаре выгрузки по позициям атрибутов в схеме выгрузки
+    private int[] attributeCodes;
     @Getter
-    private Map<String, Object> attributes; // Object == String || Object == List<String> && Object != null
-    @Getter
-    private Date[] columnTransitionsLog;
-    @Getter
-    private Long blockedDays;
+    private AttributeDictionary dictionary;
+    // Время перехода в столбцы доски (мс) или NEVER, если задача не попадала в столбец
+    private long[] columnTransitionTimes;
+    private long blockedDays;
     @Getter
     private boolean blocked;
     @Getter
     private J2aaConverter converter;
-    private final List<ChangeLogItem> statusChanges = new ArrayList<>(10);
-    @Getter
-    private final List<ChangeLogItem> flaggedChanges = new ArrayList<>(10);
+    // Изменения флага блокировки по возрастанию времени: время (мс) * FLAG_CHANGE_KINDS + вид изменения
+    private long[] flagChanges;
+
+    /**
+     * Значение времени перехода в столбец, в который задача не попадала
+     */
+    public static final long NEVER = Long.MIN_VALUE;
+    public static final int FLAG_CHANGE_OTHER = 0;
+    public static final int FLAG_CHANGE_SET = 1;
+    public static final int FLAG_CHANGE_UNSET = 2;
+    private static final int FLAG_CHANGE_KINDS = 4;
+    private static final String IMPEDIMENT = "Impediment";
+    private static final long[] NO_FLAG_CHANGES = new long[0];
 
     public static ConvertedIssue newInstance(J2aaConverter converter, Issue issue) throws JiraException {
         ConvertedIssue convertedIssue = new ConvertedIssue();
@@ -55,88 +62,18 @@ public class ConvertedIssue {
         convertedIssue.key = issue.getKey();
         convertedIssue.name = "";
 
-        convertedIssue.link = "";
-        try {
-            URL restApiUrl = new URL(issue.getSelf());
-            String pathPrefix;
-            int startPos = restApiUrl.getPath().indexOf("/rest/agile");
-            if (startPos > 0) {
-                pathPrefix = restApiUrl.getPath().substring(0, startPos);
-            } else {
-                pathPrefix = "";
-            }
-            convertedIssue.link = new StringBuffer()
-                    .append(restApiUrl.getProtocol())
-                    .append("://")
-                    .append(restApiUrl.getHost())
-                    .append((restApiUrl.getPort() == -1 ? "" : restApiUrl.getPort()))
-                    .append(pathPrefix)
-                    .append("/browse/")
-                    .append(issue.getKey())
-                    .toString();
-        } catch (MalformedURLException ignored) {
-        }
+        convertedIssue.link = converter.getBoardModel().getBrowseLink(issue.getSelf(), issue.getKey());
 
         //Считываем запрашиваемые поля для Issue
-        convertedIssue.attributes = new LinkedHashMap<>();
-        Fields fields
-                = issue.getFields();
-        for (String jiraField : converter.getJiraFields()) {
-            switch (jiraField) {
-                case "projectkey":
-                    convertedIssue.attributes.put("Project Key",
-                            issue.getKey() != null ? issue.getKey().substring(0, issue.getKey().indexOf("-")) : "");
-                    break;
-                case "summary":
-                    convertedIssue.name = (fields.getSummary() != null) ? fields.getSummary() : "";
-                    break;
-                case "project":
-                    convertedIssue.attributes.put("Project",
-                            fields.getProject() != null ? fields.getProject().getName() : "");
-                    break;
-                case "issuetype":
-                    convertedIssue.attributes.put("Issue Type",
-                            fields.getIssueType() != null ? fields.getIssueType().getName() : "");
-                    break;
-                case "assignee":
-                    convertedIssue.attributes.put("Assignee",
-                            fields.getAssignee() != null ? fields.getAssignee().getDisplayName() : "");
-                    break;
-                case "reporter":
-                    convertedIssue.attributes.put("Reporter",
-                            fields.getReporter() != null ? fields.getReporter().getDisplayName() : "");
-                    break;
-                case "priority":
-                    convertedIssue.attributes.put("Priority",
-                            fields.getPriority() != null ? fields.getPriority().getName() : "");
-                    break;
-                case "labels":
-                    convertedIssue.attributes.put("Labels",
-                            fields.getLabels() != null ? fields.getLabels() : new ArrayList<>(0));
-                    break;
-                case "components":
-                    convertedIssue.attributes.put("Components",
-                            fields.getComponents() != null ? fields.getComponents().stream()
-                                    .map(Resource::getName)
-                                    .collect(Collectors.toList()) : new ArrayList<>(0));
-                    break;
-                case "fixVersions":
-                    convertedIssue.attributes.put("Fix Versions",
-                            fields.getFixVersions() != null ? fields.getFixVersions().stream()
-                                    .map(Resource::getName)
-                                    .collect(Collectors.toList()) : new ArrayList<>(0));
-                    break;
-                case "epic":
-                    convertedIssue.attributes.put("Epic Key",
-                            fields.getEpic() != null ? fields.getEpic().getKey() : "");
-                    convertedIssue.attributes.put("Epic Name",
-                            fields.getEpic() != null ? fields.getEpic().getName() : "");
-                    break;
-            }
+        convertedIssue.dictionary = converter.getAttributeDictionary();
+        convertedIssue.attributeCodes = converter.getAttributeSchema().encode(issue, convertedIssue.dictionary);
+        if (converter.getAttributeSchema().isSummary()) {
+            convertedIssue.name = issue.getFields().getSummary() != null ? issue.getFields().getSummary() : "";
         }
 
-        convertedIssue.initTransitionsLog(issue, converter.getBoardConfig(), converter.isUseMaxColumn());
-        convertedIssue.initBlockedDays();
+        Changelog changelog = Changelog.of(issue);
+        convertedIssue.initTransitionsLog(issue, changelog, converter.getBoardModel(), converter.isUseMaxColumn());
+        convertedIssue.initBlockedDays(changelog, converter.getClock().millis());
 
         if (convertedIssue.isBlockedInDone()) {
             logger.info("{} находится в конечном статусе доски с флагом блокировки", issue.getKey());
@@ -145,187 +82,375 @@ public class ConvertedIssue {
         return convertedIssue;
     }
 
-    private boolean isBlockedInDone() {
-        return blocked && columnTransitionsLog.length > 0
-                && columnTransitionsLog[columnTransitionsLog.length - 1] != null;
+    /**
+     * Возвращает значения атрибутов задачи (строка или список строк) по названиям атрибутов.
+     * Map создается при каждом вызове
+     */
+    public Map<String, Object> getAttributes() {
+        List<String> names = converter.getAttributeSchema().getNames();
+        Map<String, Object> attributes = new LinkedHashMap<>(names.size() * 2);
+        for (int slot = 0; slot < names.size(); slot++) {
+            attributes.put(names.get(slot), dictionary.decode(attributeCodes[slot]));
+        }
+        return attributes;
     }
 
-    private static long getDaysBetween(Date start, Date end) {
-        LocalDate localStart = start.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-        LocalDate localEnd = end.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-        return ChronoUnit.DAYS.between(localStart, localEnd);
+    /**
+     * Возвращает код значения атрибута в словаре выгрузки
+     *
+     * @param slot позиция атрибута в схеме выгрузки (см. AttributeSchema)
+     */
+    public int getAttributeCode(int slot) {
+        return attributeCodes[slot];
     }
 
-    private void initTransitionsLog(Issue issue, BoardConfig boardConfig, boolean useMaxColumn) throws JiraException {
-        // 1.Отсортировать переходы статусов по времени
-        parseChangelog(issue);
-
-        statusChanges.sort(Comparator.comparing(ChangeLogItem::getDate));
-
-        // 2.Создать цепочку статусов по истории переходов
-        List<IssueStatus> issueStatuses = new ArrayList<>(20);
-
-        //Добавляем начальный статус вручную т.к. в Jira его нет
-        if (statusChanges.size() > 0)
-            issueStatuses.add(new IssueStatus(issue.getFields().getCreated(),
-                    statusChanges.get(0).getFrom(), statusChanges.get(0).getFromString()));
-        else
-            issueStatuses.add(new IssueStatus(issue.getFields().getCreated(),
-                    issue.getFields().getStatus().getId(), issue.getFields().getStatus().getName()));
-
-        // Достраиваем цепочку статусов
-        for (ChangeLogItem changeLogItem : statusChanges) {
-            if (issueStatuses.size() > 0) {
-                IssueStatus prevIssueStatus = issueStatuses.get(issueStatuses.size() - 1);
-                if (prevIssueStatus.getStatusId() == changeLogItem.getFrom())
-                    prevIssueStatus.setDateOut(changeLogItem.getDate());
-                else {
-                    throw new JiraException("Inconsistent statuses");
-                }
-            }
+    /**
+     * Возвращает значение атрибута задачи
+     *
+     * @param name название атрибута
+     * @return строка, список строк или null, если атрибут не выгружается
+     */
+    public Object getAttribute(String name) {
+        int slot = converter.getAttributeSchema().getSlot(name);
+        return slot >= 0 ? dictionary.decode(attributeCodes[slot]) : null;
+    }
+
+    /**
+     * Возвращает число столбцов доски
+     */
+    public int getColumnsCount() {
+        return columnTransitionTimes.length;
+    }
 
-            IssueStatus newIssueStatus = new IssueStatus(
-                    changeLogItem.getDate(),
-                    changeLogItem.getTo(),
-                    changeLogItem.getToString());
+    /**
+     * Возвращает время перехода задачи в столбец доски
+     *
+     * @param column индекс столбца
+     * @return время (мс) или NEVER, если задача не попадала в столбец
+     */
+    public long getColumnTransitionTime(int column) {
+        return columnTransitionTimes[column];
+    }
 
-            issueStatuses.add(newIssueStatus);
+    /**
+     * Возвращает даты перехода задачи по столбцам доски (null, если задача не попадала в столбец).
+     * Массив создается при каждом вызове
+     */
+    public Date[] getColumnTransitionsLog() {
+        Date[] columnTransitionsLog = new Date[columnTransitionTimes.length];
+        for (int i = 0; i < columnTransitionTimes.length; i++) {
+            columnTransitionsLog[i] = columnTransitionTimes[i] != NEVER ? new Date(columnTransitionTimes[i]) : null;
         }
+        return columnTransitionsLog;
+    }
+
+    public Long getBlockedDays() {
+        return blockedDays;
+    }
+
+    /**
+     * Возвращает изменения флага блокировки по возрастанию времени в упакованном виде
+     * (см. getFlagChangeTime(), getFlagChangeKind()). Массив не должен изменяться
+     */
+    public long[] getFlagChanges() {
+        return flagChanges;
+    }
+
+    /**
+     * Упаковывает изменение флага блокировки в одно значение
+     *
+     * @param time время изменения (мс)
+     * @param kind вид изменения: FLAG_CHANGE_SET, FLAG_CHANGE_UNSET или FLAG_CHANGE_OTHER
+     */
+    public static long packFlagChange(long time, int kind) {
+        return time * FLAG_CHANGE_KINDS + kind;
+    }
 
-        // 3. Подсчитать время, проведенное в колонках
-        Long[] columnLTs = new Long[boardConfig.getColumnConfig().getColumns().size()];
-        Map<Long, Long> status2Column = new HashMap<>(20);
-
-        // Инициализируем рабочие массивы и делаем маппинг статусов в таблицы
-        List<Column> columns = boardConfig.getColumnConfig().getColumns();
-        for (int i = 0; i < columns.size(); i++) {
-            Column column = columns.get(i);
-            for (Status boardColumnStatus : column.getStatuses())
-                status2Column.put(boardColumnStatus.getId(), (long) i);
-            columnLTs[i] = null;
+    /**
+     * Возвращает время изменения флага блокировки (мс)
+     */
+    public static long getFlagChangeTime(long flagChange) {
+        return Math.floorDiv(flagChange, FLAG_CHANGE_KINDS);
+    }
+
+    /**
+     * Возвращает вид изменения флага блокировки: FLAG_CHANGE_SET, FLAG_CHANGE_UNSET или FLAG_CHANGE_OTHER
+     */
+    public static int getFlagChangeKind(long flagChange) {
+        return (int) Math.floorMod(flagChange, FLAG_CHANGE_KINDS);
+    }
+
+    /**
+     * Возвращает изменения флага блокировки по возрастанию времени. Список создается при каждом вызове
+     */
+    public List<ChangeLogItem> getFlaggedChanges() {
+        List<ChangeLogItem> flaggedChanges = new ArrayList<>(flagChanges.length);
+        for (long flagChange : flagChanges) {
+            Date date = new Date(getFlagChangeTime(flagChange));
+            int kind = getFlagChangeKind(flagChange);
+            flaggedChanges.add(kind == FLAG_CHANGE_OTHER
+                    ? ChangeLogItem.of(date, "", "") : ChangeLogItem.of(date, kind == FLAG_CHANGE_SET));
         }
+        return flaggedChanges;
+    }
 
-        //считаем время цикла в каждом столбце
-        long maxColumnId = 0;
-        for (IssueStatus issueStatus : issueStatuses) {
-            Long columnId = status2Column.get(issueStatus.getStatusId());
-            if (columnId != null) {
-                if (columnLTs[columnId.intValue()] == null) {
-                    columnLTs[columnId.intValue()] = issueStatus.getCycleTimeInMillis();
-                } else {
-                    columnLTs[columnId.intValue()] += issueStatus.getCycleTimeInMillis();
-                }
+    private boolean isBlockedInDone() {
+        return blocked && columnTransitionTimes.length > 0
+                && columnTransitionTimes[columnTransitionTimes.length - 1] != NEVER;
+    }
 
-                if (columnId > maxColumnId) {
-                    maxColumnId = columnId;
-                }
-            } else {
-                logger.info(String.format("%s: статус '%s' не привязан ни к одному из столбцов на доске",
-                        issue.getKey(), issueStatus.getName()));
-            }
+    private static long getDaysBetween(long start, long end) {
+        LocalDate localStart = Instant.ofEpochMilli(start).atZone(ZoneId.systemDefault()).toLocalDate();
+        LocalDate localEnd = Instant.ofEpochMilli(end).atZone(ZoneId.systemDefault()).toLocalDate();
+        return ChronoUnit.DAYS.between(localStart, localEnd);
+    }
+
+    /**
+     * Рассчитывает даты перехода задачи по столбцам доски за один проход по цепочке статусов
+     */
+    private void initTransitionsLog(Issue issue, Changelog changelog, BoardModel boardModel, boolean useMaxColumn)
+            throws JiraException {
+        // Столбец текущего статуса ограничивает продвижение задачи по доске, если не задан useMaxColumn
+        Resource lastIssueStatus = issue.getFields().getStatus();
+        int lastColumn = useMaxColumn ? NO_COLUMN : boardModel.getColumnIndex(lastIssueStatus.getId());
+
+        // 1.Пройти цепочку статусов по истории переходов, начиная с начального статуса (в jira его нет),
+        // и подсчитать время, проведенное в столбцах
+        int columnsCount = boardModel.getColumnsCount();
+        long[] columnLTs = new long[columnsCount];
+        boolean[] visitedColumns = new boolean[columnsCount];
+        int maxColumn = 0;
+        // Первый столбец доски, в который попала задача
+        long firstTime = NEVER;
+        int firstColumn = NO_COLUMN;
+
+        long statusId;
+        String statusName;
+        if (changelog.statusCount > 0) {
+            statusId = changelog.statusFrom[0];
+            statusName = changelog.statusFromNames[0];
+        } else {
+            statusId = lastIssueStatus.getId();
+            statusName = lastIssueStatus.getName();
         }
+        long createdTime = issue.getFields().getCreated().getTime();
+        long timeIn = createdTime;
 
-        // 4. Рассчитать новое время прохождения столбцов задачей по доске
-        columnTransitionsLog = new Date[columnLTs.length];
-        Arrays.fill(columnTransitionsLog, null);
-
-        // Определяем первый столбец доски в который попала задача на доске
-        Date firstDate = null;
-        Long firstColumnId = null;
-        for (IssueStatus issueStatus : issueStatuses) {
-            Long columnId = status2Column.get(issueStatus.getStatusId());
-            if (columnId != null) {
-                if (firstDate == null) {
-                    // Инициализируем первое значение firstColumnId & firstDate
-                    Resource lastIssueStatus = issue.getFields().getStatus();
-                    if (columnId <= (useMaxColumn ? maxColumnId : status2Column.get(lastIssueStatus.getId()))) {
-                        firstDate = issueStatus.getDateIn();
-                        firstColumnId = columnId;
+        for (int i = 0; i <= changelog.statusCount; i++) {
+            boolean hasChange = i < changelog.statusCount;
+            if (hasChange && statusId != changelog.statusFrom[i]) {
+                throw new JiraException("Inconsistent statuses");
+            }
+            long cycleTimeMillis = hasChange ? changelog.statusTimes[i] - timeIn : 0;
+
+            int column = boardModel.getColumnIndex(statusId);
+            if (column != NO_COLUMN) {
+                columnLTs[column] += cycleTimeMillis;
+                visitedColumns[column] = true;
+                maxColumn = Math.max(maxColumn, column);
+
+                if (firstColumn == NO_COLUMN) {
+                    if (!useMaxColumn && lastColumn == NO_COLUMN) {
+                        throw new JiraException(String.format("текущий статус '%s' не привязан ни к одному из столбцов на доске",
+                                lastIssueStatus.getName()));
                     }
-                } else {
-                    if (firstDate.after(issueStatus.getDateIn())) {
-                        // Если нашли переход раньше нынешнего, то считаем его первым в цепочке
-                        firstDate = issueStatus.getDateIn();
-                        firstColumnId = columnId;
+                    // При useMaxColumn любой столбец не превышает максимальный
+                    if (useMaxColumn || column <= lastColumn) {
+                        firstTime = timeIn;
+                        firstColumn = column;
                     }
+                } else if (firstTime > timeIn) {
+                    // Если нашли переход раньше нынешнего, то считаем его первым в цепочке
+                    firstTime = timeIn;
+                    firstColumn = column;
                 }
+            } else {
+                logger.info(String.format("%s: статус '%s' не привязан ни к одному из столбцов на доске",
+                        issue.getKey(), statusName));
+            }
+
+            if (hasChange) {
+                statusId = changelog.statusTo[i];
+                statusName = changelog.statusToNames[i];
+                timeIn = changelog.statusTimes[i];
             }
         }
 
+        // 2. Рассчитать новое время прохождения столбцов задачей по доске
+        columnTransitionTimes = new long[columnsCount];
+        Arrays.fill(columnTransitionTimes, NEVER);
+
         // если карточка присутствует на доске, то рассчитываем новые даты переходов между столбцами,
         // начиная с первого найденного ранее
-        if (firstColumnId != null) {
+        if (firstColumn != NO_COLUMN) {
 
             // по первому столбцу дата совпадает с датой перехода в нее
-            long columnId = firstColumnId;
-            columnTransitionsLog[(int) columnId] = firstDate;
-            Date prevDate = columnTransitionsLog[(int) columnId];
-            Long leadTimeMillis = columnLTs[(int) columnId];
-            columnId++;
+            columnTransitionTimes[firstColumn] = firstTime;
+            long prevTime = firstTime;
+            long leadTimeMillis = columnLTs[firstColumn];
 
             //далее рассчитываем новые даты, по всем остальным столбцам доски
-            Resource lastIssueStatus = issue.getFields().getStatus();
-            while (columnId < columnLTs.length
-                    && columnId <= (useMaxColumn ? maxColumnId : status2Column.get(lastIssueStatus.getId()))) {
-                if (columnLTs[(int) columnId] != null) {
-                    columnTransitionsLog[(int) columnId] = new Date(prevDate.getTime() + leadTimeMillis);
-                    prevDate = columnTransitionsLog[(int) columnId];
-                    leadTimeMillis = columnLTs[(int) columnId];
+            int limit = useMaxColumn ? maxColumn : lastColumn;
+            for (int column = firstColumn + 1; column < columnsCount && column <= limit; column++) {
+                if (visitedColumns[column]) {
+                    prevTime += leadTimeMillis;
+                    columnTransitionTimes[column] = prevTime;
+                    leadTimeMillis = columnLTs[column];
                 }
-                columnId++;
             }
 
             // если колонка Backlog не сопоставлена ни с какими статусами, то сопоставляем ее с моментом создания задачи
-            if (columnTransitionsLog[0] == null) columnTransitionsLog[0] = issue.getFields().getCreated();
+            if (columnTransitionTimes[0] == NEVER) columnTransitionTimes[0] = createdTime;
         }
     }
 
-    private void initBlockedDays() {
-        flaggedChanges.sort(Comparator.comparing(ChangeLogItem::getDate));
-
-        blockedDays = (long) 0;
+    private void initBlockedDays(Changelog changelog, long now) {
+        flagChanges = changelog.flagChanges;
 
-        Date startOfBlockedTimePeriod = null;
+        blockedDays = 0;
+        long startOfBlockedTimePeriod = NEVER;
 
-        for (ChangeLogItem fc : flaggedChanges) {
+        for (long flagChange : flagChanges) {
+            long time = getFlagChangeTime(flagChange);
+            int kind = getFlagChangeKind(flagChange);
 
-            if (fc.getToString().equals("Impediment" /*or getTo() = [10000] ? */)) {
-                if (startOfBlockedTimePeriod == null) {
-                    startOfBlockedTimePeriod = fc.getDate();
+            if (kind == FLAG_CHANGE_SET) {
+                if (startOfBlockedTimePeriod == NEVER) {
+                    startOfBlockedTimePeriod = time;
                 }
-            } else if (fc.getFromString().equals("Impediment" /*or getTo() = [10000] ? */)) {
-                if (startOfBlockedTimePeriod != null) {
-                    blockedDays += getDaysBetween(startOfBlockedTimePeriod, fc.getDate());
-                    startOfBlockedTimePeriod = null;
+            } else if (kind == FLAG_CHANGE_UNSET) {
+                if (startOfBlockedTimePeriod != NEVER) {
+                    blockedDays += getDaysBetween(startOfBlockedTimePeriod, time);
+                    startOfBlockedTimePeriod = NEVER;
                 } else {
                     logger.info(String.format("%s: ошибка в данных по блокировкам. "
                             + "Снят флаг на незаблокированной задаче", getKey()));
-//                        startOfBlockedTimePeriod = startWFDate;
                 }
             }
 
-            blocked = startOfBlockedTimePeriod != null;
+            blocked = startOfBlockedTimePeriod != NEVER;
             if (blocked) {
-                blockedDays += getDaysBetween(startOfBlockedTimePeriod, new Date());
+                blockedDays += getDaysBetween(startOfBlockedTimePeriod, now);
             }
         }
     }
 
-    private void parseChangelog(Issue issue) {
-        if (issue.getChangelog() != null && issue.getChangelog().getHistories() != null) {
-            for (History history : issue.getChangelog().getHistories()) {
+    /**
+     * Переходы статусов и изменения флага блокировки из истории изменений задачи, упорядоченные по времени.
+     * Хранятся в массивах примитивов, которые используются только при конвертации
+     */
+    private static class Changelog {
+        int statusCount;
+        long[] statusTimes;
+        long[] statusFrom;
+        long[] statusTo;
+        String[] statusFromNames;
+        String[] statusToNames;
+        long[] flagChanges = NO_FLAG_CHANGES;
+
+        static Changelog of(Issue issue) {
+            Changelog changelog = new Changelog();
+            List<History> histories = issue.getChangelog() != null ? issue.getChangelog().getHistories() : null;
+
+            int flagCount = 0;
+            if (histories != null) {
+                for (History history : histories) {
+                    for (HistoryItem item : history.getHistoryItems()) {
+                        switch (item.getField()) {
+                            case HistoryItem.FIELD_STATUS:
+                                changelog.statusCount++;
+                                break;
+                            case HistoryItem.FIELD_FLAGGED:
+                                flagCount++;
+                                break;
+                        }
+                    }
+                }
+            }
+
+            changelog.statusTimes = new long[changelog.statusCount];
+            changelog.statusFrom = new long[changelog.statusCount];
+            changelog.statusTo = new long[changelog.statusCount];
+            changelog.statusFromNames = new String[changelog.statusCount];
+            changelog.statusToNames = new String[changelog.statusCount];
+            if (flagCount > 0) {
+                changelog.flagChanges = new long[flagCount];
+            }
+            if (histories == null) {
+                return changelog;
+            }
+
+            int statusIndex = 0;
+            int flagIndex = 0;
+            for (History history : histories) {
+                long time = history.getCreated().getTime();
                 for (HistoryItem item : history.getHistoryItems()) {
                     switch (item.getField()) {
-                        case "status":
-                            statusChanges.add(ChangeLogItem.of(history, item, 0));
+                        case HistoryItem.FIELD_STATUS:
+                            changelog.statusTimes[statusIndex] = time;
+                            changelog.statusFrom[statusIndex] = Long.parseLong(item.getFrom());
+                            changelog.statusTo[statusIndex] = Long.parseLong(item.getTo());
+                            changelog.statusFromNames[statusIndex] = item.getFromString();
+                            changelog.statusToNames[statusIndex] = item.getToString();
+                            statusIndex++;
                             break;
-                        case "Flagged":
-                            flaggedChanges.add(ChangeLogItem.of(history, item,
-                                    ChangeLogItem.SKIP_FROM | ChangeLogItem.SKIP_TO));
+                        case HistoryItem.FIELD_FLAGGED:
+                            int kind = IMPEDIMENT.equals(item.getToString()) ? FLAG_CHANGE_SET
+                                    : IMPEDIMENT.equals(item.getFromString()) ? FLAG_CHANGE_UNSET : FLAG_CHANGE_OTHER;
+                            changelog.flagChanges[flagIndex++] = packFlagChange(time, kind);
                             break;
                     }
                 }
             }
+
+            changelog.sortStatusChanges();
+            sortFlagChanges(changelog.flagChanges);
+            return changelog;
+        }
+
+        /**
+         * Упорядочивает переходы статусов по времени с сохранением порядка одновременных переходов.
+         * История изменений обычно уже упорядочена, поэтому используется сортировка вставками
+         */
+        private void sortStatusChanges() {
+            for (int i = 1; i < statusCount; i++) {
+                long time = statusTimes[i];
+                if (statusTimes[i - 1] <= time)
+                    continue;
+
+                long from = statusFrom[i];
+                long to = statusTo[i];
+                String fromName = statusFromNames[i];
+                String toName = statusToNames[i];
+                int j = i - 1;
+                for (; j >= 0 && statusTimes[j] > time; j--) {
+                    statusTimes[j + 1] = statusTimes[j];
+                    statusFrom[j + 1] = statusFrom[j];
+                    statusTo[j + 1] = statusTo[j];
+                    statusFromNames[j + 1] = statusFromNames[j];
+                    statusToNames[j + 1] = statusToNames[j];
+                }
+                statusTimes[j + 1] = time;
+                statusFrom[j + 1] = from;
+                statusTo[j + 1] = to;
+                statusFromNames[j + 1] = fromName;
+                statusToNames[j + 1] = toName;
+            }
+        }
+
+        /**
+         * Упорядочивает изменения флага по времени с сохранением порядка одновременных изменений
+         */
+        private static void sortFlagChanges(long[] flagChanges) {
+            for (int i = 1; i < flagChanges.length; i++) {
+                long flagChange = flagChanges[i];
+                long time = getFlagChangeTime(flagChange);
+                int j = i - 1;
+                for (; j >= 0 && getFlagChangeTime(flagChanges[j]) > time; j--) {
+                    flagChanges[j + 1] = flagChanges[j];
+                }
+                flagChanges[j + 1] = flagChange;
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package club.kanban.j2aa.j2aaconverter;
+
+import club.kanban.j2aa.jiraclient.dto.issue.Issue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Локальный кэш задач доски, используемый для инкрементальной синхронизации.
+ * Для каждой доски хранится последний полученный набор задач (вместе с историей изменений)
+ * и время последней синхронизации
+ */
+public class IssueCache {
+    private static final Logger logger = LoggerFactory.getLogger(IssueCache.class);
+    private static final String FILE_NAME_TEMPLATE = "board-%d.json";
+
+    @Getter
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Снимок задач доски на момент синхронизации
+     */
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Snapshot {
+        /**
+         * Параметры выгрузки (поля и фильтр), при которых получены задачи.
+         * Снимок, полученный при других параметрах, не используется
+         */
+        String signature;
+        /**
+         * Время начала синхронизации (мс)
+         */
+        long lastSync;
+        List<Issue> issues;
+    }
+
+    public IssueCache(Path directory) {
+        this.directory = directory;
+        this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    /**
+     * Загружает снимок задач доски
+     *
+     * @param boardId   идентификатор доски
+     * @param signature параметры текущей выгрузки
+     * @return снимок или Optional.empty(), если снимок отсутствует, не читается или получен при других параметрах
+     */
+    public Optional<Snapshot> load(long boardId, String signature) {
+        Path file = getFile(boardId);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            Snapshot snapshot = objectMapper.readValue(inputStream, Snapshot.class);
+            if (signature.equals(snapshot.getSignature()) && snapshot.getIssues() != null) {
+                return Optional.of(snapshot);
+            }
+        } catch (IOException e) {
+            logger.info(String.format("Не удается прочитать кэш задач %s: %s", file, e.getMessage()));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Сохраняет снимок задач доски. Файл заменяется целиком, чтобы прерванная запись не повредила кэш
+     *
+     * @param boardId  идентификатор доски
+     * @param snapshot снимок задач
+     * @throws IOException в случае если не удается записать файл
+     */
+    public void save(long boardId, Snapshot snapshot) throws IOException {
+        Files.createDirectories(directory);
+        Path file = getFile(boardId);
+        Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                objectMapper.writeValue(outputStream, snapshot);
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private Path getFile(long boardId) {
+        return directory.resolve(String.format(FILE_NAME_TEMPLATE, boardId));
+    }
+}
@@ -3,6 +3,7 @@ package club.kanban.j2aa.j2aaconverter;
 import club.kanban.j2aa.J2aaConfig;
 import club.kanban.j2aa.j2aaconverter.fileadapters.Exportable;
 import club.kanban.j2aa.j2aaconverter.fileadapters.FileAdapterFactory;
+import club.kanban.j2aa.jiraclient.AdaptivePageSize;
 import club.kanban.j2aa.jiraclient.JiraClient;
 import club.kanban.j2aa.jiraclient.JiraException;
 import club.kanban.j2aa.jiraclient.dto.Board;
@@ -14,46 +15,116 @@ import lombok.Getter;
 import org.apache.commons.io.FilenameUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.*;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Конвертер задач доски jira. Состояние выгрузки (конфигурация доски, конвертированные задачи, данные для
+ * календаря блокировок) хранится в экземпляре, поэтому выгрузки одного экземпляра выполняются последовательно.
+ * Для параллельной выгрузки нескольких досок используются отдельные экземпляры, которые могут использовать
+ * общий JiraClient
+ */
 public class J2aaConverter {
     private static final Logger logger = LoggerFactory.getLogger(J2aaConverter.class);
-    private static final int MAX_ALLOWED_ISSUES = 1000;
+    public static final int DEFAULT_MAX_ISSUES_IN_MEMORY = 1000;
+    public static final int DEFAULT_FETCH_CONCURRENCY = 4;
+    // Меньшие наборы задач конвертируются в текущем потоке
+    private static final int MIN_PARALLEL_CONVERT_SIZE = 2;
     private final static List<String> REQUIRED_HTTP_FIELDS = Arrays.asList("status", "created");
+    // Параметры инкрементальной синхронизации
+    private final static List<String> SYNC_HTTP_FIELDS = List.of("updated");
+    private static final int SYNC_MAX_RESULTS = 1000;
+    private static final int SYNC_ID_CHUNK_SIZE = 100;
+    private static final long SYNC_OVERLAP_MINUTES = 5;
 
     private final JiraClient jiraClient;
     private final URL boardUrl;
     private final String jqlSubFilter;
     @Getter
     private final List<String> jiraFields;
+    // Состав атрибутов задач, определяемый по jiraFields
+    @Getter
+    private final AttributeSchema attributeSchema;
     @Getter
     private final boolean useMaxColumn;
+    @Getter
+    private final int fetchConcurrency;
+    @Getter
+    private final int convertConcurrency;
+    @Getter
+    private final int maxIssuesInMemory;
+    private final IssueCache issueCache;
+    @Getter
+    private final int minPageSize;
+    @Getter
+    private final int maxPageSize;
+    // Если не задана, то используется FileAdapterFactory из контекста приложения
+    private final FileAdapterFactory fileAdapterFactory;
+    // Текущее время для расчета блокировок и синхронизации, по умолчанию системные часы
+    @Getter
+    private final Clock clock;
 
     @Getter
-    private BoardConfig boardConfig;
+    private volatile BoardConfig boardConfig;
 
+    // Модель доски для конвертации задач, создается при подключении к доске
     @Getter
-    private List<ConvertedIssue> convertedIssues;
+    private volatile BoardModel boardModel;
+
+    // Словарь значений атрибутов задач, создается для каждой выгрузки
+    @Getter
+    private volatile AttributeDictionary attributeDictionary;
+
+    @Getter
+    private volatile List<ConvertedIssue> convertedIssues;
+
+    private long fetchStartTime;
+    // Размер страниц с историей изменений, подбираемый в ходе выгрузки
+    private AdaptivePageSize pageSize;
+
+    // Данные для календаря блокировок, накапливаемые по мере конвертации задач
+    private Date blockersCalendarStart;
+    private Map<String, List<long[]>> flaggedChangesByIssueType;
 
     @Builder(setterPrefix = "with", builderMethodName = "internalBuilder")
     public J2aaConverter(JiraClient jiraClient,
-                         URL boardUrl, String jqlSubFilter, List<String> jiraFields, boolean useMaxColumn) {
+                         URL boardUrl, String jqlSubFilter, List<String> jiraFields, boolean useMaxColumn,
+                         int fetchConcurrency, Integer maxIssuesInMemory, IssueCache issueCache,
+                         int minPageSize, int maxPageSize, FileAdapterFactory fileAdapterFactory,
+                         int convertConcurrency, Clock clock) {
         this.jiraClient = jiraClient;
         this.boardUrl = boardUrl;
         this.jqlSubFilter = jqlSubFilter;
         this.jiraFields = jiraFields;
+        this.attributeSchema = new AttributeSchema(jiraFields);
         this.useMaxColumn = useMaxColumn;
+        this.fetchConcurrency = fetchConcurrency > 0 ? fetchConcurrency : DEFAULT_FETCH_CONCURRENCY;
+        this.maxIssuesInMemory = maxIssuesInMemory != null ? maxIssuesInMemory : DEFAULT_MAX_ISSUES_IN_MEMORY;
+        this.issueCache = issueCache;
+        this.minPageSize = minPageSize > 0 ? minPageSize : AdaptivePageSize.DEFAULT_MIN_RESULTS;
+        this.maxPageSize = maxPageSize > 0 ? maxPageSize : AdaptivePageSize.DEFAULT_MAX_RESULTS;
+        this.fileAdapterFactory = fileAdapterFactory;
+        this.convertConcurrency = convertConcurrency > 0
+                ? convertConcurrency : Runtime.getRuntime().availableProcessors();
+        this.clock = clock != null ? clock : Clock.systemDefaultZone();
     }
 
     public static J2aaConverterBuilder builder(JiraClient jiraClient, URL boardUrl) {
@@ -62,7 +133,14 @@ public class J2aaConverter {
         return internalBuilder().withJiraClient(jiraClient).withBoardUrl(boardUrl);
     }
 
-    private static long getBoardUrl(URL url) {
+    /**
+     * Возвращает идентификатор доски из ее адреса (параметр rapidView)
+     *
+     * @param url адрес доски
+     * @return идентификатор доски
+     * @throws JiraException если адрес не содержит ссылки на доску
+     */
+    public static long getBoardId(URL url) {
         Objects.requireNonNull(url);
 
         String strBoardId = null;
@@ -90,113 +168,545 @@ public class J2aaConverter {
         return boardId;
     }
 
-    public int fetchData() {
+    /**
+     * Загружает и конвертирует все задачи доски. Конвертированные задачи сохраняются в памяти
+     * и доступны через getConvertedIssues()
+     *
+     * @return число конвертированных задач
+     * @throws JiraException если число задач превышает maxIssuesInMemory
+     */
+    public synchronized int fetchData() {
         convertedIssues = null;
 
+        List<String> actualHttpFields = getActualHttpFields();
+        var connection = connect(actualHttpFields);
+        Board board = connection.getT1();
+        BoardIssuesPage firstPage = connection.getT2();
+        if (firstPage.getTotal() > maxIssuesInMemory) {
+            throw new JiraException(
+                    String.format("Число задач в выгрузке (%d) больше, чем максимально допустимое (%d).\n"
+                                    + "Попробуйте уточнить период или параметры в Доп.JQL фильтре.",
+                            firstPage.getTotal(), maxIssuesInMemory));
+        }
+
+        fetchIssues(board, actualHttpFields, firstPage);
+        return convertedIssues.size();
+    }
+
+    /**
+     * Загружает, конвертирует и выгружает задачи доски в файл. Если число задач не превышает maxIssuesInMemory,
+     * то конвертированные задачи накапливаются в памяти и доступны через getConvertedIssues().
+     * Иначе используется потоковый режим: каждая задача конвертируется по мере получения и сразу записывается
+     * в файл, поэтому ни исходные, ни конвертированные задачи не накапливаются в памяти, а getConvertedIssues()
+     * возвращает null. В обоих случаях выгрузка календаря блокировок (exportBlockers) остается доступной.
+     * Задачи записываются во временный файл рядом с файлом для экспорта, который заменяет предыдущий файл только
+     * после успешного завершения выгрузки. При ошибке предыдущий файл остается без изменений
+     *
+     * @param outputFileName файл для экспорта
+     * @return число выгруженных задач
+     * @throws IOException в случае если не удается записать файл
+     */
+    public synchronized int fetchAndExport(String outputFileName) throws IOException {
+        File outputFile = prepareOutputFile(outputFileName).getAbsoluteFile();
+        Path tempFile = Files.createTempFile(outputFile.getParentFile().toPath(), outputFile.getName(), ".tmp");
+        try {
+            AtomicBoolean written = new AtomicBoolean();
+            int exported = fetchAndExport(getExportable(outputFile), () -> {
+                written.set(true);
+                return newFileWriter(tempFile.toFile());
+            }, "файл:\n" + outputFile);
+            if (written.get()) {
+                Files.move(tempFile, outputFile.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return exported;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Загружает, конвертирует и выгружает задачи доски в заданном формате в writer (например, в стандартный
+     * вывод). Обработка задач такая же, как в fetchAndExport(String). Writer не закрывается
+     *
+     * @param writer     получатель выгрузки
+     * @param exportable формат выгрузки
+     * @return число выгруженных задач
+     * @throws IOException в случае если не удается записать данные
+     */
+    public synchronized int fetchAndExport(Writer writer, Exportable exportable) throws IOException {
+        Objects.requireNonNull(writer);
+        Objects.requireNonNull(exportable);
+        return fetchAndExport(exportable, () -> new FilterWriter(writer) {
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        }, "поток вывода");
+    }
+
+    private int fetchAndExport(Exportable exportable, WriterSupplier writerSupplier, String target)
+            throws IOException {
+        convertedIssues = null;
+
+        List<String> actualHttpFields = getActualHttpFields();
+        var connection = connect(actualHttpFields);
+        Board board = connection.getT1();
+        BoardIssuesPage firstPage = connection.getT2();
+
+        if (firstPage.getTotal() <= maxIssuesInMemory) {
+            fetchIssues(board, actualHttpFields, firstPage);
+            if (!convertedIssues.isEmpty()) {
+                try (Writer writer = writerSupplier.get()) {
+                    writeIssues(writer, exportable);
+                }
+                logger.info(String.format("Данные выгружены в %s", target));
+            }
+            return convertedIssues.size();
+        }
+
+        if (maxIssuesInMemory > 0) {
+            logger.info(String.format("Число задач в выгрузке (%d) больше, чем допустимое для обработки в памяти (%d). "
+                    + "Используется потоковая выгрузка", firstPage.getTotal(), maxIssuesInMemory));
+        }
+        if (issueCache != null) {
+            // Кэш задач не используется в потоковом режиме. Первая страница нужна с историей изменений
+            firstPage = fetchFirstPage(board, jqlSubFilter, actualHttpFields, true);
+        }
+        int exported = streamIssues(board, actualHttpFields, firstPage, exportable, writerSupplier);
+        logger.info(String.format("Данные выгружены в %s", target));
+        return exported;
+    }
+
+    private void fetchIssues(Board board, List<String> actualHttpFields, BoardIssuesPage firstPage) {
+        convertedIssues = new ArrayList<>(firstPage.getTotal());
+        ForkJoinPool convertPool = newConvertPool();
+        try {
+            if (issueCache != null) {
+                List<Issue> issues = syncIssues(board, actualHttpFields, firstPage);
+                convertedIssues.addAll(convertIssues(issues, convertPool));
+                logProgress(issues.size(), issues.size());
+                return;
+            }
+
+            convertPage(firstPage, convertPool);
+
+            // Остальные страницы запрашиваются параллельно и обрабатываются в порядке следования
+            for (BoardIssuesPage page : jiraClient.getBoardIssuesPages(board, jqlSubFilter,
+                    actualHttpFields, firstPage, fetchConcurrency, true, pageSize).toIterable()) {
+                convertPage(page, convertPool);
+            }
+        } finally {
+            shutdown(convertPool);
+        }
+    }
+
+    private int streamIssues(Board board, List<String> actualHttpFields, BoardIssuesPage firstPage,
+                             Exportable exportable, WriterSupplier writerSupplier) throws IOException {
+        int progressStep = Math.max(firstPage.getMaxResults(), 1);
+
+        int exported = 0;
+        int processed = 0;
+        ForkJoinPool convertPool = newConvertPool();
+        try (Writer writer = writerSupplier.get();
+             Stream<Issue> issues = jiraClient.getBoardIssuesFlux(board, jqlSubFilter,
+                     actualHttpFields, firstPage, fetchConcurrency, pageSize).toStream(progressStep)) {
+
+            writer.write(exportable.getPrefix());
+            // Задачи конвертируются порциями по progressStep, чтобы в памяти находилась только одна порция
+            List<Issue> chunk = new ArrayList<>(progressStep);
+            for (Iterator<Issue> iterator = issues.iterator(); iterator.hasNext(); ) {
+                chunk.add(iterator.next());
+                if (chunk.size() < progressStep && iterator.hasNext())
+                    continue;
+
+                for (ConvertedIssue convertedIssue : convertIssues(chunk, convertPool)) {
+                    if (exported == 0)
+                        exportable.writeHeaders(writer, convertedIssue);
+
+                    exportable.writeValues(writer, convertedIssue);
+                    exported++;
+                }
+                processed += chunk.size();
+                chunk.clear();
+                logProgress(processed, firstPage.getTotal());
+            }
+            writer.write(exportable.getPostfix());
+            writer.flush();
+        } finally {
+            shutdown(convertPool);
+        }
+
+        return exported;
+    }
+
+    /**
+     * Подключается к доске: получает доску, ее конфигурацию и первую страницу задач, а также сбрасывает данные
+     * для календаря блокировок. Все три запроса выполняются параллельно, так как первая страница запрашивается
+     * по идентификатору доски из ее адреса
+     *
+     * @return доска и первая страница задач
+     */
+    private Tuple2<Board, BoardIssuesPage> connect(List<String> actualHttpFields) {
         logger.info(String.format("Подключаемся к серверу: %s", jiraClient.getServerUrl()));
 
-        long boardId = getBoardUrl(boardUrl);
-        Board board = jiraClient.getBoard(boardId).orElseThrow(
+        long boardId = getBoardId(boardUrl);
+        fetchStartTime = System.nanoTime();
+        pageSize = AdaptivePageSize.builder()
+                .withMinResults(minPageSize)
+                .withMaxResults(maxPageSize)
+                .build();
+        blockersCalendarStart = null;
+        flaggedChangesByIssueType = new HashMap<>(10);
+
+        var connection = Mono.zip(
+                        jiraClient.getBoardMono(boardId).map(Optional::of).defaultIfEmpty(Optional.empty()),
+                        jiraClient.getBoardConfigMono(boardId).map(Optional::of).defaultIfEmpty(Optional.empty()),
+                        fetchFirstPage(boardId, actualHttpFields).map(Optional::of).defaultIfEmpty(Optional.empty()))
+                .block();
+        Objects.requireNonNull(connection);
+
+        Board board = connection.getT1().orElseThrow(
                 () -> new JiraException(
                         String.format("Доска с id = %d не найдена", boardId)));
-        boardConfig = jiraClient.getBoardConfig(boardId).orElseThrow(
+        boardConfig = connection.getT2().orElseThrow(
                 () -> new JiraException(
                         String.format("Конфигурация доски с id = %d не найдена", boardId)));
+        boardModel = new BoardModel(boardConfig);
+        attributeDictionary = new AttributeDictionary();
+        BoardIssuesPage firstPage = connection.getT3().orElseThrow(
+                () -> new JiraException(
+                        String.format("Не удалось получить задачи доски с id = %d", boardId)));
 
         logger.info(String.format("Установлено соединение с доской: %s", boardConfig.getName()));
+        return Tuples.of(board, firstPage);
+    }
 
-        BoardIssuesPage page = null;
-        int startAt = 0;
-        do {
-            if (page != null) {
-                startAt = page.nextPageStartAt();
-            }
+    private List<String> getActualHttpFields() {
+        List<String> actualHttpFields = new ArrayList<>(REQUIRED_HTTP_FIELDS.size() + jiraFields.size());
+        actualHttpFields.addAll(REQUIRED_HTTP_FIELDS);
+        if (issueCache != null) {
+            actualHttpFields.addAll(SYNC_HTTP_FIELDS);
+        }
+        actualHttpFields.addAll(jiraFields);
+        return actualHttpFields;
+    }
+
+    /**
+     * Получает первую страницу, которая определяет общее число issues и размер страницы.
+     * При инкрементальной синхронизации первая страница содержит только список задач без истории изменений
+     */
+    private Mono<BoardIssuesPage> fetchFirstPage(long boardId, List<String> actualHttpFields) {
+        return issueCache != null
+                ? fetchFirstPage(boardId, jqlSubFilter, SYNC_HTTP_FIELDS, false)
+                : fetchFirstPage(boardId, jqlSubFilter, actualHttpFields, true);
+    }
 
-            List<String> actualHttpFields = new ArrayList<>(REQUIRED_HTTP_FIELDS.size() + jiraFields.size());
-            actualHttpFields.addAll(REQUIRED_HTTP_FIELDS);
-            actualHttpFields.addAll(jiraFields);
-            page = jiraClient.getBoardIssuesPage(board, jqlSubFilter,
-                    actualHttpFields, startAt, BoardIssuesPage.DEFAULT_MAX_RESULTS).block();
-
-            assert page != null;
-            if (page.getTotal() > MAX_ALLOWED_ISSUES) {
-                throw new JiraException(
-                        String.format("Число задач в выгрузке (%d) больше, чем максимально допустимое (%d).\n"
-                                        + "Попробуйте уточнить период или параметры в Доп.JQL фильтре.",
-                                page.getTotal(), MAX_ALLOWED_ISSUES));
+    /**
+     * Получает первую страницу. Размер страниц с историей изменений подбирается адаптивно,
+     * а без истории изменений - постоянный (SYNC_MAX_RESULTS)
+     */
+    private Mono<BoardIssuesPage> fetchFirstPage(long boardId, String jql, List<String> httpFields,
+                                                 boolean expandChangelog) {
+        return jiraClient.getBoardIssuesPage(boardId, jql,
+                httpFields, 0, expandChangelog ? pageSize : AdaptivePageSize.fixed(SYNC_MAX_RESULTS),
+                expandChangelog);
+    }
+
+    private BoardIssuesPage fetchFirstPage(Board board, String jql, List<String> httpFields,
+                                           boolean expandChangelog) {
+        BoardIssuesPage firstPage = fetchFirstPage(board.getId(), jql, httpFields, expandChangelog).block();
+
+        assert firstPage != null;
+        return firstPage;
+    }
+
+    /**
+     * Получает все задачи, соответствующие фильтру доски и заданному запросу
+     */
+    private List<Issue> fetchAllIssues(Board board, String jql, List<String> httpFields, boolean expandChangelog) {
+        BoardIssuesPage firstPage = fetchFirstPage(board, jql, httpFields, expandChangelog);
+        List<Issue> issues = new ArrayList<>(firstPage.getTotal());
+        issues.addAll(firstPage.getIssues());
+        Flux<BoardIssuesPage> pages = expandChangelog
+                ? jiraClient.getBoardIssuesPages(board, jql, httpFields, firstPage, fetchConcurrency, true, pageSize)
+                : jiraClient.getBoardIssuesPages(board, jql, httpFields, firstPage, fetchConcurrency, false);
+        for (BoardIssuesPage page : pages.toIterable()) {
+            issues.addAll(page.getIssues());
+        }
+        return issues;
+    }
+
+    /**
+     * Инкрементальная синхронизация задач доски с локальным кэшем. Из jira запрашивается полный список задач доски
+     * (без истории изменений), а полностью - только задачи, измененные с момента последней синхронизации
+     * или отсутствующие в кэше. Задачи, которые больше не соответствуют фильтру, удаляются из кэша
+     *
+     * @param board            доска
+     * @param actualHttpFields поля для выгрузки
+     * @param firstPage        первая страница списка задач доски
+     * @return актуальный список задач доски в порядке следования на доске
+     */
+    private List<Issue> syncIssues(Board board, List<String> actualHttpFields, BoardIssuesPage firstPage) {
+        long syncStart = clock.millis();
+        String signature = String.join(",", actualHttpFields) + "|" + Objects.toString(jqlSubFilter, "");
+
+        // 1. Текущий список задач доски с датами обновления
+        List<Issue> boardIssues = new ArrayList<>(firstPage.getTotal());
+        boardIssues.addAll(firstPage.getIssues());
+        for (BoardIssuesPage page : jiraClient.getBoardIssuesPages(board, jqlSubFilter,
+                SYNC_HTTP_FIELDS, firstPage, fetchConcurrency, false).toIterable()) {
+            boardIssues.addAll(page.getIssues());
+        }
+
+        // 2. Задачи, измененные с момента последней синхронизации
+        Map<Long, Issue> cachedIssues = new HashMap<>();
+        Map<Long, Issue> freshIssues = new HashMap<>();
+        Optional<IssueCache.Snapshot> snapshot = issueCache.load(board.getId(), signature);
+        if (snapshot.isPresent()) {
+            snapshot.get().getIssues().forEach(issue -> cachedIssues.put(issue.getId(), issue));
+            long minutes = (syncStart - snapshot.get().getLastSync()) / 60000 + SYNC_OVERLAP_MINUTES;
+            fetchAllIssues(board, andJql(jqlSubFilter, String.format("updated >= -%dm", minutes)),
+                    actualHttpFields, true).forEach(issue -> freshIssues.put(issue.getId(), issue));
+        } else {
+            logger.info("Кэш задач доски не найден. Выполняется полная загрузка");
+            fetchAllIssues(board, jqlSubFilter, actualHttpFields, true)
+                    .forEach(issue -> freshIssues.put(issue.getId(), issue));
+        }
+
+        // 3. Задачи, отсутствующие в кэше или обновленные, но не попавшие в предыдущий запрос
+        List<String> missingIds = new ArrayList<>();
+        for (Issue issue : boardIssues) {
+            Issue cachedIssue = cachedIssues.get(issue.getId());
+            if (!freshIssues.containsKey(issue.getId()) && (cachedIssue == null
+                    || !Objects.equals(cachedIssue.getFields().getUpdated(), issue.getFields().getUpdated()))) {
+                missingIds.add(String.valueOf(issue.getId()));
             }
+        }
+        for (int i = 0; i < missingIds.size(); i += SYNC_ID_CHUNK_SIZE) {
+            String ids = String.join(",", missingIds.subList(i, Math.min(i + SYNC_ID_CHUNK_SIZE, missingIds.size())));
+            fetchAllIssues(board, andJql(jqlSubFilter, String.format("id in (%s)", ids)), actualHttpFields, true)
+                    .forEach(issue -> freshIssues.put(issue.getId(), issue));
+        }
 
-            if (convertedIssues == null) {
-                convertedIssues = new ArrayList<>(page.getTotal());
+        // 4. Объединяем в порядке следования задач на доске
+        List<Issue> issues = new ArrayList<>(boardIssues.size());
+        int fromCache = 0;
+        for (Issue issue : boardIssues) {
+            Issue actualIssue = freshIssues.get(issue.getId());
+            if (actualIssue == null) {
+                actualIssue = cachedIssues.get(issue.getId());
+                fromCache++;
             }
+            if (actualIssue != null) {
+                issues.add(actualIssue);
+            }
+        }
+        logger.info(String.format("Синхронизация: %d issues из кэша, %d получено из jira",
+                fromCache, issues.size() - fromCache));
 
-            // Map issue's changelog to board columns
-            List<ConvertedIssue> convertedIssuesSet = new ArrayList<>(page.getIssues().size());
-            for (Issue issue : page.getIssues()) {
-                try {
-                    ConvertedIssue convertedIssue = ConvertedIssue.newInstance(this, issue);
-                    convertedIssuesSet.add(convertedIssue);
-                } catch (Exception e) {
-                    logger.info(String.format("Не удается конвертировать %s: %s", issue.getKey(), e.getMessage()));
-                }
+        try {
+            issueCache.save(board.getId(), new IssueCache.Snapshot(signature, syncStart, issues));
+        } catch (IOException e) {
+            logger.info(String.format("Не удается сохранить кэш задач: %s", e.getMessage()));
+        }
+        return issues;
+    }
+
+    private static String andJql(String jql, String condition) {
+        return jql == null || jql.isBlank() ? condition : String.format("(%s) AND %s", jql, condition);
+    }
+
+    private void convertPage(BoardIssuesPage page, ForkJoinPool convertPool) {
+        // Map issue's changelog to board columns
+        convertedIssues.addAll(convertIssues(page.getIssues(), convertPool));
+        logProgress(Math.min(page.getStartAt() + page.getIssues().size(), page.getTotal()), page.getTotal());
+    }
+
+    private void logProgress(int processed, int total) {
+        double seconds = (System.nanoTime() - fetchStartTime) / 1e9;
+        logger.info(String.format("%d из %d issues получено (%d%%, %.1f issues/сек)",
+                processed, total, total > 0 ? processed * 100L / total : 100, seconds > 0 ? processed / seconds : 0));
+    }
+
+    /**
+     * Создает пул для конвертации задач или возвращает null, если задачи конвертируются в текущем потоке
+     */
+    private ForkJoinPool newConvertPool() {
+        return convertConcurrency > 1 ? new ForkJoinPool(convertConcurrency) : null;
+    }
+
+    private static void shutdown(ForkJoinPool convertPool) {
+        if (convertPool != null) {
+            convertPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Конвертирует задачи (параллельно, если задан пул) и учитывает их в данных для календаря блокировок.
+     * Порядок конвертированных задач совпадает с порядком исходных, а данные для календаря блокировок
+     * накапливаются в текущем потоке. Задачи, которые не удалось конвертировать, пропускаются
+     *
+     * @param issues      задачи
+     * @param convertPool пул для конвертации или null
+     * @return конвертированные задачи
+     */
+    private List<ConvertedIssue> convertIssues(List<Issue> issues, ForkJoinPool convertPool) {
+        List<ConvertedIssue> converted;
+        if (convertPool == null || issues.size() < MIN_PARALLEL_CONVERT_SIZE) {
+            converted = issues.stream().map(this::convertIssue).collect(Collectors.toList());
+        } else {
+            converted = convertPool.submit(() -> issues.parallelStream()
+                    .map(this::convertIssue)
+                    .collect(Collectors.toList())).join();
+        }
+
+        List<ConvertedIssue> result = new ArrayList<>(converted.size());
+        for (ConvertedIssue convertedIssue : converted) {
+            if (convertedIssue != null) {
+                addBlockersData(convertedIssue);
+                result.add(convertedIssue);
             }
+        }
+        return result;
+    }
 
-            convertedIssues.addAll(convertedIssuesSet);
-            logger.info(String.format("%d из %d issues получено", convertedIssues.size(), page.getTotal()));
-        } while (page.hasNextPage());
+    /**
+     * Конвертирует задачу. Может выполняться одновременно для нескольких задач
+     *
+     * @return конвертированная задача или null, если задачу не удалось конвертировать
+     */
+    private ConvertedIssue convertIssue(Issue issue) {
+        try {
+            return ConvertedIssue.newInstance(this, issue);
+        } catch (Exception e) {
+            logger.info(String.format("Не удается конвертировать %s: %s", issue.getKey(), e.getMessage()));
+            return null;
+        }
+    }
 
-        return convertedIssues.size();
+    /**
+     * Учитывает задачу в данных для календаря блокировок
+     */
+    private void addBlockersData(ConvertedIssue convertedIssue) {
+        long firstTime = convertedIssue.getColumnsCount() > 0
+                ? convertedIssue.getColumnTransitionTime(0) : ConvertedIssue.NEVER;
+        if (firstTime != ConvertedIssue.NEVER
+                && (blockersCalendarStart == null || firstTime < blockersCalendarStart.getTime())) {
+            blockersCalendarStart = new Date(firstTime);
+        }
+
+        Object issueType = convertedIssue.getAttribute("Issue Type");
+        List<long[]> flaggedChanges = flaggedChangesByIssueType.computeIfAbsent(
+                issueType != null ? issueType.toString() : null, k -> new ArrayList<>());
+        if (convertedIssue.getFlagChanges().length > 0) {
+            flaggedChanges.add(convertedIssue.getFlagChanges());
+        }
+    }
+
+    /**
+     * Строит календарь блокировок по изменениям флага задач. При наличии пула задачи обрабатываются
+     * параллельно, каждый поток заполняет свой календарь, а затем календари объединяются
+     */
+    private static BlockersCalendar newBlockersCalendar(List<long[]> flaggedChanges, LocalDate startDate,
+                                                        LocalDate endDate, ForkJoinPool convertPool) {
+        if (convertPool == null || flaggedChanges.size() < MIN_PARALLEL_CONVERT_SIZE) {
+            BlockersCalendar calendar = BlockersCalendar.newInstance(startDate, endDate);
+            flaggedChanges.forEach(calendar::importFlagChanges);
+            return calendar;
+        }
+        return convertPool.submit(() -> flaggedChanges.parallelStream().collect(
+                () -> BlockersCalendar.newInstance(startDate, endDate),
+                BlockersCalendar::importFlagChanges,
+                BlockersCalendar::merge)).join();
     }
 
-    public void exportIssues(String outputFileName) throws IOException {
+    private static File prepareOutputFile(String outputFileName) throws IOException {
         File outputFile = new File(outputFileName);
 
         if (outputFile.getParentFile() != null) {
             Files.createDirectories(outputFile.getParentFile().toPath());
         }
+        return outputFile;
+    }
 
-        try (OutputStreamWriter writer = new OutputStreamWriter(
-                new FileOutputStream(outputFile.getAbsoluteFile()), StandardCharsets.UTF_8)) {
+    private static Writer newFileWriter(File outputFile) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(outputFile.getAbsoluteFile()), StandardCharsets.UTF_8));
+    }
 
-            var context = J2aaConfig.getContext();
-            Exportable exportable = context
-                    .getBean(FileAdapterFactory.class)
-                    .getAdapter(FilenameUtils.getExtension(outputFile.getName()));
-            writer.write(exportable.getPrefix());
-            for (int i = 0; i < convertedIssues.size(); i++) {
-                ConvertedIssue convertedIssue = convertedIssues.get(i);
+    private Exportable getExportable(File outputFile) {
+        FileAdapterFactory factory = fileAdapterFactory != null
+                ? fileAdapterFactory : J2aaConfig.getContext().getBean(FileAdapterFactory.class);
+        return factory.getAdapter(FilenameUtils.getExtension(outputFile.getName()));
+    }
 
-                if (i == 0)
-                    writer.write(exportable.getHeaders(convertedIssue));
+    public synchronized void exportIssues(String outputFileName) throws IOException {
+        File outputFile = prepareOutputFile(outputFileName);
 
-                writer.write(exportable.getValues(convertedIssue));
-            }
-            writer.write(exportable.getPostfix());
-            writer.flush();
+        try (Writer writer = newFileWriter(outputFile)) {
+            writeIssues(writer, getExportable(outputFile));
             logger.info(String.format("Данные выгружены в файл:\n%s", outputFile.getAbsoluteFile()));
         }
+    }
+
+    /**
+     * Выгружает задачи, полученные fetchData(), в заданном формате в writer. Writer не закрывается
+     *
+     * @param writer     получатель выгрузки
+     * @param exportable формат выгрузки
+     * @throws IOException в случае если не удается записать данные
+     */
+    public synchronized void exportIssues(Writer writer, Exportable exportable) throws IOException {
+        Objects.requireNonNull(convertedIssues);
+        writeIssues(writer, exportable);
+    }
+
+    private void writeIssues(Writer writer, Exportable exportable) throws IOException {
+        writer.write(exportable.getPrefix());
+        for (int i = 0; i < convertedIssues.size(); i++) {
+            ConvertedIssue convertedIssue = convertedIssues.get(i);
+
+            if (i == 0)
+                exportable.writeHeaders(writer, convertedIssue);
+
+            exportable.writeValues(writer, convertedIssue);
+        }
+        writer.write(exportable.getPostfix());
+        writer.flush();
+    }
 
+    /**
+     * Источник writer для выгрузки, который открывается только при наличии данных для записи
+     */
+    @FunctionalInterface
+    private interface WriterSupplier {
+        Writer get() throws IOException;
     }
 
-    public void exportBlockers(String outputFileName) throws IOException {
+    /**
+     * Выгружает календарь блокировок. Используются данные, накопленные при выполнении fetchData()
+     * или fetchAndExport()
+     *
+     * @param outputFileName файл для экспорта задач, рядом с которым создается файл календаря
+     * @throws IOException в случае если не удается записать файл
+     */
+    public synchronized void exportBlockers(String outputFileName) throws IOException {
         Objects.requireNonNull(outputFileName);
         // Экспортруем календарь блокировок
         // Формируем данные
-        LocalDate calendarStartDay = LocalDate.from(convertedIssues.stream()
-                .map(issue -> issue.getColumnTransitionsLog()[0])
-                .min(Date::compareTo).orElseThrow().toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
-        LocalDate calendarEndDay = LocalDate.now();
+        LocalDate calendarStartDay = LocalDate.from(Optional.ofNullable(blockersCalendarStart)
+                .orElseThrow().toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
+        LocalDate calendarEndDay = LocalDate.now(clock);
         Map<String, BlockersCalendar> calendars = new HashMap<>(10);
-        convertedIssues.forEach(issue -> {
-            String issueType = Objects.requireNonNull(issue.getAttributes().get("Issue Type").toString());
-            BlockersCalendar issueTypeCalendar = calendars.get(issueType);
-            if (issueTypeCalendar == null) {
-                issueTypeCalendar = BlockersCalendar.newInstance(calendarStartDay, calendarEndDay);
-                calendars.put(issueType, issueTypeCalendar);
-            }
-//            if (!issue.isBlocked())//TODO удалить
-            issueTypeCalendar.importBlockerChanges(issue.getFlaggedChanges());
-        });
+        ForkJoinPool convertPool = newConvertPool();
+        try {
+            flaggedChangesByIssueType.forEach((issueType, flaggedChanges) -> calendars.put(
+                    Objects.requireNonNull(issueType),
+                    newBlockersCalendar(flaggedChanges, calendarStartDay, calendarEndDay, convertPool)));
+        } finally {
+            shutdown(convertPool);
+        }
 
         String name = FilenameUtils.getBaseName(outputFileName);
         String path = FilenameUtils.getFullPath(outputFileName);
@@ -221,10 +731,11 @@ public class J2aaConverter {
 
             LocalDate calendarDate = calendarStartDay;
             while (calendarDate.isBefore(calendarEndDay) || calendarDate.equals(calendarEndDay)) {
+                long calendarDay = calendarDate.toEpochDay();
                 int sum = 0;
                 List<String> values = new ArrayList<>(calendars.keySet().size());
-                for (String key : calendars.keySet()) {
-                    int value = calendars.get(key).getValue(calendarDate);
+                for (BlockersCalendar calendar : calendars.values()) {
+                    int value = calendar.getValue(calendarDay);
                     values.add(String.valueOf(value));
                     sum += value;
                 }
@@ -2,6 +2,13 @@ package club.kanban.j2aa.j2aaconverter.fileadapters;
 
 import club.kanban.j2aa.j2aaconverter.ConvertedIssue;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Базовый формат выгрузки. Форматы реализуют запись заголовков и значений в Appendable,
+ * а getHeaders() и getValues() возвращают то же самое в виде строки
+ */
 public abstract class AbstractAdapter implements Exportable {
     @Override
     public abstract String getDefaultExtension();
@@ -10,10 +17,32 @@ public abstract class AbstractAdapter implements Exportable {
     public abstract String getDescription();
 
     @Override
-    public abstract String getHeaders(ConvertedIssue expIssue);
+    public abstract void writeHeaders(Appendable out, ConvertedIssue expIssue) throws IOException;
+
+    @Override
+    public abstract void writeValues(Appendable out, ConvertedIssue expIssue) throws IOException;
 
     @Override
-    public abstract String getValues(ConvertedIssue expIssue);
+    public String getHeaders(ConvertedIssue expIssue) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeHeaders(sb, expIssue);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String getValues(ConvertedIssue expIssue) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeValues(sb, expIssue);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
 
     @Override
     public String getPrefix() {
@@ -1,19 +1,20 @@
 package club.kanban.j2aa.j2aaconverter.fileadapters;
 
+import club.kanban.j2aa.j2aaconverter.AttributeDictionary;
+import club.kanban.j2aa.j2aaconverter.AttributeSchema;
 import club.kanban.j2aa.j2aaconverter.ConvertedIssue;
 import club.kanban.j2aa.jiraclient.dto.boardconfig.columnconfig.column.Column;
 import org.springframework.stereotype.Repository;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Date;
+import java.io.IOException;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Repository
 public class CsvAdapter extends AbstractAdapter {
+    // Значения атрибутов форматируются один раз для каждого значения в словаре выгрузки
+    private static final Function<Object, String> ATTRIBUTE_FORMATTER = Utils::formatAttribute;
+
     private CsvAdapter() {
     }
 
@@ -28,53 +29,46 @@ public class CsvAdapter extends AbstractAdapter {
     }
 
     @Override
-    public String getHeaders(ConvertedIssue convertedIssue) {
+    public void writeHeaders(Appendable out, ConvertedIssue convertedIssue) throws IOException {
         List<Column> columns = convertedIssue.getConverter().getBoardConfig().getColumnConfig().getColumns();
-        List<String> headers = new ArrayList<>(3 + columns.size() + convertedIssue.getAttributes().size());
+        AttributeSchema schema = convertedIssue.getConverter().getAttributeSchema();
 
-        headers.addAll(Arrays.asList("ID", "Link", "Name"));
+        out.append("ID,Link,Name");
         for (Column column : columns) {
-            headers.add(column.getName());
+            out.append(',');
+            Utils.appendEscaped(out, column.getName());
         }
-        headers.addAll(convertedIssue.getAttributes().keySet());
-        headers.addAll(Arrays.asList("Blocked Days", "Blocked"));
-
-        return headers.stream()
-                .map(Utils::escapeString)
-                .collect(Collectors.joining(","));
+        for (String name : schema.getNames()) {
+            out.append(',');
+            Utils.appendEscaped(out, name);
+        }
+        out.append(",Blocked Days,Blocked");
     }
 
     @Override
-    public String getValues(ConvertedIssue convertedIssue) {
-        List<Column> columns = convertedIssue.getConverter().getBoardConfig().getColumnConfig().getColumns();
-        List<String> values = new ArrayList<>(3 + columns.size() + convertedIssue.getAttributes().size());
+    public void writeValues(Appendable out, ConvertedIssue convertedIssue) throws IOException {
+        AttributeSchema schema = convertedIssue.getConverter().getAttributeSchema();
 
-        values.addAll(Arrays.asList(convertedIssue.getKey(),
-                convertedIssue.getLink(),
-                Utils.escapeString(convertedIssue.getName())));
+        out.append('\n')
+                .append(convertedIssue.getKey()).append(',')
+                .append(convertedIssue.getLink()).append(',');
+        Utils.appendEscaped(out, convertedIssue.getName());
 
-        DateFormat df = new SimpleDateFormat(Utils.DEFAULT_DATETIME_FORMAT);
-        for (int i = 0; i < columns.size(); i++) {
-            Date date = convertedIssue.getColumnTransitionsLog()[i];
-            values.add(date != null ? df.format(date) : "");
-        }
-
-        convertedIssue.getAttributes().forEach((k, v) -> {
-            if (v instanceof String) {
-                values.add(Utils.escapeString((String) v));
-            } else if (v instanceof List<?> && ((List<?>) v).size() > 0) {
-                values.add("[" + ((List<?>) v).stream()
-                        .map(o -> Utils.escapeString(o.toString()))
-                        .collect(Collectors.joining("|"))
-                        + "]");
-            } else {
-                values.add("");
+        TimestampFormatter dateFormatter = Utils.getDateFormatter();
+        for (int i = 0; i < convertedIssue.getColumnsCount(); i++) {
+            out.append(',');
+            long time = convertedIssue.getColumnTransitionTime(i);
+            if (time != ConvertedIssue.NEVER) {
+                dateFormatter.formatTo(time, out);
             }
-        });
+        }
 
-        values.add(String.valueOf(convertedIssue.getBlockedDays()));
-        values.add(convertedIssue.isBlocked() ? "yes" : "no");
+        AttributeDictionary dictionary = convertedIssue.getDictionary();
+        for (int slot = 0; slot < schema.size(); slot++) {
+            out.append(',').append(dictionary.format(convertedIssue.getAttributeCode(slot), ATTRIBUTE_FORMATTER));
+        }
 
-        return "\n" + String.join(",", values);
+        out.append(',').append(String.valueOf(convertedIssue.getBlockedDays()))
+                .append(',').append(convertedIssue.isBlocked() ? "yes" : "no");
     }
 }
@@ -2,6 +2,8 @@ package club.kanban.j2aa.j2aaconverter.fileadapters;
 
 import club.kanban.j2aa.j2aaconverter.ConvertedIssue;
 
+import java.io.IOException;
+
 public interface Exportable {
     String getDefaultExtension();
 
@@ -14,4 +16,28 @@ public interface Exportable {
     String getPrefix();
 
     String getPostfix();
+
+    /**
+     * Записывает заголовки в out. Форматы выгрузки переопределяют метод, чтобы писать заголовки
+     * без создания промежуточных строк
+     *
+     * @param out      получатель выгрузки
+     * @param expIssue первая выгружаемая задача
+     * @throws IOException в случае если не удается записать данные
+     */
+    default void writeHeaders(Appendable out, ConvertedIssue expIssue) throws IOException {
+        out.append(getHeaders(expIssue));
+    }
+
+    /**
+     * Записывает значения задачи в out. Форматы выгрузки переопределяют метод, чтобы писать значения
+     * без создания промежуточных строк и списков
+     *
+     * @param out      получатель выгрузки
+     * @param expIssue задача
+     * @throws IOException в случае если не удается записать данные
+     */
+    default void writeValues(Appendable out, ConvertedIssue expIssue) throws IOException {
+        out.append(getValues(expIssue));
+    }
 }
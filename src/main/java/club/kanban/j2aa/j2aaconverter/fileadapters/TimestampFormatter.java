@@ -0,0 +1,101 @@
+package club.kanban.j2aa.j2aaconverter.fileadapters;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Форматирование дат выгрузки в формате MM/dd/yyyy (Utils.DEFAULT_DATETIME_FORMAT). Неизменяем и потокобезопасен.
+ * Так как формат не содержит времени, строка вычисляется один раз для каждого дня и хранится в кэше,
+ * поэтому повторное форматирование не создает объектов
+ */
+public final class TimestampFormatter {
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    private static final int FORMATTED_LENGTH = 10;
+    // Даты до перехода на григорианский календарь и годы длиннее 4 цифр SimpleDateFormat выводит иначе
+    private static final int MIN_YEAR = 1583;
+    private static final int MAX_YEAR = 9999;
+    // Размер кэша (степень 2): около 11 лет без вытеснения
+    private static final int CACHE_SIZE = 4096;
+
+    private final TimeZone timeZone;
+    // Кэш строк по дням. Элементы неизменяемы, поэтому массив используется потоками без синхронизации
+    private final FormattedDay[] cache = new FormattedDay[CACHE_SIZE];
+
+    private static final class FormattedDay {
+        private final long epochDay;
+        private final String text;
+
+        private FormattedDay(long epochDay, String text) {
+            this.epochDay = epochDay;
+            this.text = text;
+        }
+    }
+
+    /**
+     * @param timeZone часовой пояс, в котором определяется день
+     */
+    public TimestampFormatter(TimeZone timeZone) {
+        this.timeZone = (TimeZone) timeZone.clone();
+    }
+
+    /**
+     * Возвращает дату в формате MM/dd/yyyy
+     *
+     * @param time время (мс)
+     */
+    public String format(long time) {
+        long epochDay = Math.floorDiv(time + timeZone.getOffset(time), MILLIS_PER_DAY);
+        int index = (int) (epochDay & (CACHE_SIZE - 1));
+        FormattedDay formattedDay = cache[index];
+        if (formattedDay == null || formattedDay.epochDay != epochDay) {
+            formattedDay = new FormattedDay(epochDay, formatEpochDay(epochDay, time));
+            cache[index] = formattedDay;
+        }
+        return formattedDay.text;
+    }
+
+    /**
+     * Записывает дату в формате MM/dd/yyyy в out
+     *
+     * @param time время (мс)
+     * @param out  получатель
+     * @throws IOException в случае если не удается записать данные
+     */
+    public void formatTo(long time, Appendable out) throws IOException {
+        out.append(format(time));
+    }
+
+    /**
+     * Проверяет, определяется ли день в заданном часовом поясе
+     */
+    boolean hasTimeZone(TimeZone timeZone) {
+        return this.timeZone.getID().equals(timeZone.getID()) && this.timeZone.hasSameRules(timeZone);
+    }
+
+    private String formatEpochDay(long epochDay, long time) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        if (date.getYear() < MIN_YEAR || date.getYear() > MAX_YEAR) {
+            SimpleDateFormat dateFormat = new SimpleDateFormat(Utils.DEFAULT_DATETIME_FORMAT);
+            dateFormat.setTimeZone(timeZone);
+            return dateFormat.format(new Date(time));
+        }
+
+        char[] chars = new char[FORMATTED_LENGTH];
+        writeDigits(chars, 0, date.getMonthValue(), 2);
+        chars[2] = '/';
+        writeDigits(chars, 3, date.getDayOfMonth(), 2);
+        chars[5] = '/';
+        writeDigits(chars, 6, date.getYear(), 4);
+        return new String(chars);
+    }
+
+    private static void writeDigits(char[] chars, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
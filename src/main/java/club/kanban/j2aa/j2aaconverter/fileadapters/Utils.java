@@ -1,7 +1,63 @@
 package club.kanban.j2aa.j2aaconverter.fileadapters;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+
 class Utils {
     public static final String DEFAULT_DATETIME_FORMAT = "MM/dd/yyyy";
+    // Форматирование дат в часовом поясе по умолчанию. Заменяется при смене часового пояса по умолчанию
+    private static volatile TimestampFormatter dateFormatter = new TimestampFormatter(TimeZone.getDefault());
+
+    /**
+     * Возвращает форматирование дат в текущем часовом поясе по умолчанию (как SimpleDateFormat, созданный
+     * при вызове). Кэш отформатированных дней сохраняется, пока часовой пояс по умолчанию не изменится
+     */
+    public static TimestampFormatter getDateFormatter() {
+        TimeZone timeZone = TimeZone.getDefault();
+        TimestampFormatter formatter = dateFormatter;
+        if (!formatter.hasTimeZone(timeZone)) {
+            formatter = new TimestampFormatter(timeZone);
+            dateFormatter = formatter;
+        }
+        return formatter;
+    }
+
+    /**
+     * Записывает строку в out, экранируя так же, как escapeString(), но без создания промежуточных строк
+     */
+    public static void appendEscaped(Appendable out, String s) throws IOException {
+        int start = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                out.append(s, start, i);
+                if (c == ',' || c == '"') {
+                    out.append('\\').append(c);
+                }
+                start = i + 1;
+            }
+        }
+        out.append(s, start, s.length());
+    }
+
+    /**
+     * Форматирует значение атрибута задачи: строка экранируется, непустой список выводится как [a|b],
+     * остальные значения - пустой строкой
+     */
+    public static String formatAttribute(Object value) {
+        if (value instanceof String) {
+            return escapeString((String) value);
+        } else if (value instanceof List<?> && ((List<?>) value).size() > 0) {
+            return "[" + ((List<?>) value).stream()
+                    .map(o -> escapeString(o.toString()))
+                    .collect(Collectors.joining("|"))
+                    + "]";
+        } else {
+            return "";
+        }
+    }
 
     public static String escapeString(String s) {
         return s.replace(",", "\\,")
@@ -0,0 +1,121 @@
+package club.kanban.j2aa.jiraclient;
+
+import club.kanban.j2aa.jiraclient.dto.BoardIssuesPage;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Адаптивный размер страницы (maxResults) при постраничном получении issues.
+ * По времени ответа и объему уже полученных страниц оценивается стоимость одной issue, и размер следующей
+ * страницы подбирается так, чтобы ответ укладывался в целевое время и объем. Размер ограничен заданными
+ * границами, а также значением maxResults, до которого сервер сократил запрошенный размер страницы.
+ * После неудачного запроса (тайм-аут, ошибка сервера) размер страницы уменьшается вдвое.
+ * Экземпляр потокобезопасен и может использоваться параллельными запросами
+ */
+public class AdaptivePageSize {
+    public static final int DEFAULT_MIN_RESULTS = 10;
+    public static final int DEFAULT_MAX_RESULTS = 500;
+    public static final Duration DEFAULT_TARGET_RESPONSE_TIME = Duration.ofSeconds(3);
+    public static final long DEFAULT_TARGET_PAGE_BYTES = 4 * 1024 * 1024;
+    // Вес нового измерения при сглаживании оценок
+    private static final double SMOOTHING = 0.5;
+    // Во сколько раз страница может вырасти за один шаг
+    private static final int MAX_GROWTH = 2;
+    // Во сколько раз страница уменьшается после неудачного запроса
+    private static final int FAILURE_SHRINK = 2;
+
+    @Getter
+    private final int minResults;
+    @Getter
+    private final int maxResults;
+    private final long targetNanos;
+    private final long targetBytes;
+
+    private int current;
+    private int serverCap = Integer.MAX_VALUE;
+    private double nanosPerIssue = Double.NaN;
+    private double bytesPerIssue = Double.NaN;
+
+    /**
+     * @param minResults         минимальный размер страницы. Если не задан, то DEFAULT_MIN_RESULTS
+     * @param maxResults         максимальный размер страницы. Если не задан, то DEFAULT_MAX_RESULTS
+     * @param initialResults     размер первой страницы. Если не задан, то BoardIssuesPage.DEFAULT_MAX_RESULTS
+     * @param targetResponseTime целевое время ответа сервера на запрос одной страницы
+     * @param targetPageBytes    целевой объем одной страницы (байт)
+     */
+    @Builder(setterPrefix = "with")
+    private AdaptivePageSize(int minResults, int maxResults, int initialResults,
+                             Duration targetResponseTime, long targetPageBytes) {
+        this.minResults = minResults > 0 ? minResults : DEFAULT_MIN_RESULTS;
+        this.maxResults = Math.max(maxResults > 0 ? maxResults : DEFAULT_MAX_RESULTS, this.minResults);
+        this.targetNanos = (targetResponseTime != null ? targetResponseTime : DEFAULT_TARGET_RESPONSE_TIME).toNanos();
+        this.targetBytes = targetPageBytes > 0 ? targetPageBytes : DEFAULT_TARGET_PAGE_BYTES;
+        this.current = clamp(initialResults > 0 ? initialResults : BoardIssuesPage.DEFAULT_MAX_RESULTS);
+    }
+
+    /**
+     * Возвращает неизменяемый размер страницы
+     *
+     * @param size размер страницы
+     * @return экземпляр AdaptivePageSize
+     */
+    public static AdaptivePageSize fixed(int size) {
+        return AdaptivePageSize.builder().withMinResults(size).withMaxResults(size).withInitialResults(size).build();
+    }
+
+    /**
+     * Возвращает размер страницы для очередного запроса
+     *
+     * @return maxResults
+     */
+    public synchronized int nextPageSize() {
+        return Math.min(current, serverCap);
+    }
+
+    /**
+     * Учитывает результат запроса страницы
+     *
+     * @param requestedResults  запрошенный размер страницы
+     * @param serverMaxResults  размер страницы, возвращенный сервером
+     * @param issuesCount       число полученных issues
+     * @param bytes             объем ответа (байт)
+     * @param nanos             время выполнения запроса (нс)
+     */
+    public synchronized void onPageReceived(int requestedResults, int serverMaxResults,
+                                            int issuesCount, long bytes, long nanos) {
+        if (serverMaxResults > 0 && serverMaxResults < requestedResults) {
+            serverCap = Math.min(serverCap, serverMaxResults);
+        }
+        if (issuesCount <= 0 || minResults == maxResults) {
+            return;
+        }
+
+        nanosPerIssue = smooth(nanosPerIssue, (double) nanos / issuesCount);
+        bytesPerIssue = smooth(bytesPerIssue, (double) bytes / issuesCount);
+
+        double bySize = bytesPerIssue > 0 ? targetBytes / bytesPerIssue : maxResults;
+        double byTime = nanosPerIssue > 0 ? targetNanos / nanosPerIssue : maxResults;
+        long size = (long) Math.min(Math.min(bySize, byTime), (double) current * MAX_GROWTH);
+        current = clamp((int) Math.min(size, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Учитывает неудачный запрос страницы. Слишком большая страница может не укладываться в тайм-аут
+     * ответа или перегружать сервер, поэтому следующие страницы запрашиваются меньшего размера
+     */
+    public synchronized void onPageFailed() {
+        if (minResults != maxResults) {
+            current = clamp(current / FAILURE_SHRINK);
+        }
+    }
+
+    private static double smooth(double estimate, double value) {
+        return Double.isNaN(estimate) ? value : estimate + SMOOTHING * (value - estimate);
+    }
+
+    private int clamp(int size) {
+        return Math.max(minResults, Math.min(maxResults, size));
+    }
+}
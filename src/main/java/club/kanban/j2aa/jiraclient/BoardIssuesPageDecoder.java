@@ -0,0 +1,184 @@
+package club.kanban.j2aa.jiraclient;
+
+import club.kanban.j2aa.jiraclient.dto.BoardIssuesPage;
+import club.kanban.j2aa.jiraclient.dto.issue.Issue;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Потоковый декодер страницы BoardIssuesPage. Тело ответа разбирается по мере поступления,
+ * и каждый элемент массива issues выдается сразу после того, как он полностью получен.
+ * Таким образом в памяти одновременно находится не вся страница, а только одна issue
+ */
+class BoardIssuesPageDecoder {
+    private static final String ISSUES_FIELD = "issues";
+
+    private final ObjectMapper objectMapper;
+
+    BoardIssuesPageDecoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Декодирует тело ответа в поток issues
+     *
+     * @param body               тело ответа
+     * @param pageHeaderConsumer получатель заголовка страницы (startAt, maxResults, total) без issues.
+     *                           Вызывается после разбора всего тела ответа, если оно содержит JSON объект
+     * @return поток issues в порядке следования на странице
+     */
+    Flux<Issue> decode(Flux<DataBuffer> body, Consumer<BoardIssuesPage> pageHeaderConsumer) {
+        return Flux.defer(() -> {
+            State state = new State();
+            return body
+                    .concatMapIterable(state::feed)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(state.endOfInput())))
+                    .doOnComplete(() -> {
+                        if (state.rootObjectFound && pageHeaderConsumer != null) {
+                            pageHeaderConsumer.accept(
+                                    new BoardIssuesPage(state.startAt, state.maxResults, state.total, null));
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Состояние разбора одного тела ответа
+     */
+    private class State {
+        final JsonParser parser;
+        final ByteArrayFeeder feeder;
+        // Текущая глубина вложенности JSON структур
+        int depth;
+        String fieldName;
+        boolean inIssues;
+        TokenBuffer issueTokens;
+
+        boolean rootObjectFound;
+        int startAt;
+        int maxResults;
+        int total;
+
+        State() {
+            try {
+                parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+            } catch (IOException e) {
+                throw new DecodingException("Не удается создать JSON парсер", e);
+            }
+            feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        }
+
+        List<Issue> feed(DataBuffer dataBuffer) {
+            byte[] bytes = new byte[dataBuffer.readableByteCount()];
+            try {
+                dataBuffer.read(bytes);
+            } finally {
+                DataBufferUtils.release(dataBuffer);
+            }
+
+            try {
+                feeder.feedInput(bytes, 0, bytes.length);
+                return parseAvailable();
+            } catch (IOException e) {
+                throw new DecodingException("Не удается разобрать страницу issues: " + e.getMessage(), e);
+            }
+        }
+
+        List<Issue> endOfInput() {
+            feeder.endOfInput();
+            try {
+                return parseAvailable();
+            } catch (IOException e) {
+                throw new DecodingException("Не удается разобрать страницу issues: " + e.getMessage(), e);
+            }
+        }
+
+        private List<Issue> parseAvailable() throws IOException {
+            List<Issue> issues = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                if (issueTokens != null) {
+                    issueTokens.copyCurrentEvent(parser);
+                    updateDepth(token);
+                    if (depth == 2) {
+                        issues.add(objectMapper.readValue(issueTokens.asParser(objectMapper), Issue.class));
+                        issueTokens = null;
+                    }
+                    continue;
+                }
+
+                switch (token) {
+                    case START_OBJECT:
+                        if (depth == 0) {
+                            rootObjectFound = true;
+                        } else if (depth == 2 && inIssues) {
+                            issueTokens = new TokenBuffer(parser, null);
+                            issueTokens.copyCurrentEvent(parser);
+                        }
+                        depth++;
+                        break;
+                    case START_ARRAY:
+                        inIssues = depth == 1 && ISSUES_FIELD.equals(fieldName);
+                        depth++;
+                        break;
+                    case END_OBJECT:
+                    case END_ARRAY:
+                        depth--;
+                        if (depth == 1) {
+                            inIssues = false;
+                        }
+                        break;
+                    case FIELD_NAME:
+                        if (depth == 1) {
+                            fieldName = parser.getCurrentName();
+                        }
+                        break;
+                    case VALUE_NUMBER_INT:
+                        if (depth == 1 && fieldName != null) {
+                            readHeaderField(parser.getIntValue());
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return issues;
+        }
+
+        private void updateDepth(JsonToken token) {
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+        }
+
+        private void readHeaderField(int value) {
+            switch (fieldName) {
+                case "startAt":
+                    startAt = value;
+                    break;
+                case "maxResults":
+                    maxResults = value;
+                    break;
+                case "total":
+                    total = value;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
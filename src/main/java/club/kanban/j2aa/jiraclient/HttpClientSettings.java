@@ -0,0 +1,88 @@
+package club.kanban.j2aa.jiraclient;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Duration;
+
+/**
+ * Параметры HTTP соединений JiraClient. Значения по умолчанию подобраны для постраничной выгрузки
+ * большого числа задач: сжатие ответов, пул соединений не меньше числа параллельных запросов
+ * и время простоя соединения меньше типового keep-alive таймаута сервера
+ */
+@Getter
+@ToString
+@Builder(setterPrefix = "with")
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class HttpClientSettings {
+    public static final HttpClientSettings DEFAULT = HttpClientSettings.builder().build();
+
+    /**
+     * Запрашивать сжатие ответов (gzip)
+     */
+    @Builder.Default
+    boolean compression = true;
+    /**
+     * Максимальное число соединений в пуле
+     */
+    @Builder.Default
+    int maxConnections = 16;
+    /**
+     * Время, после которого неиспользуемое соединение закрывается
+     */
+    @Builder.Default
+    Duration maxIdleTime = Duration.ofSeconds(30);
+    /**
+     * Максимальное время жизни соединения
+     */
+    @Builder.Default
+    Duration maxLifeTime = Duration.ofMinutes(5);
+    /**
+     * Максимальное время ожидания свободного соединения из пула
+     */
+    @Builder.Default
+    Duration pendingAcquireTimeout = Duration.ofSeconds(60);
+    /**
+     * Максимальное время ожидания ответа сервера
+     */
+    @Builder.Default
+    Duration responseTimeout = Duration.ofSeconds(120);
+    /**
+     * Число потоков обработки сетевых событий. 0 - по числу процессоров
+     */
+    @Builder.Default
+    int eventLoopThreads = 0;
+    /**
+     * Использовать HTTP/2, если его поддерживает сервер (только для https)
+     */
+    @Builder.Default
+    boolean http2 = false;
+    /**
+     * Число повторов запроса при временных ошибках сервера (429, 500, 502, 503, 504) и сетевых ошибках
+     */
+    @Builder.Default
+    int maxRetries = 5;
+    /**
+     * Задержка перед первым повтором. Каждый следующий повтор выполняется с вдвое большей задержкой
+     */
+    @Builder.Default
+    Duration retryMinBackoff = Duration.ofMillis(500);
+    /**
+     * Максимальная задержка перед повтором (если сервер не указал большую в заголовке Retry-After)
+     */
+    @Builder.Default
+    Duration retryMaxBackoff = Duration.ofSeconds(30);
+    /**
+     * Максимальное число запросов в секунду. 0 - без ограничения
+     */
+    @Builder.Default
+    double maxRequestsPerSecond = 0;
+    /**
+     * Время, в течение которого сохраненные доска и конфигурация доски используются без проверки на сервере
+     */
+    @Builder.Default
+    Duration responseCacheTtl = Duration.ofHours(1);
+}
@@ -3,35 +3,44 @@ package club.kanban.j2aa.jiraclient;
 import club.kanban.j2aa.jiraclient.dto.Board;
 import club.kanban.j2aa.jiraclient.dto.BoardIssuesPage;
 import club.kanban.j2aa.jiraclient.dto.JiraResource;
-import club.kanban.j2aa.jiraclient.dto.auth.AuthResponse;
-import club.kanban.j2aa.jiraclient.dto.auth.UserCredentials;
 import club.kanban.j2aa.jiraclient.dto.boardconfig.BoardConfig;
 import club.kanban.j2aa.jiraclient.dto.issue.Issue;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientRequestException;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
 
-import java.net.HttpCookie;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Клиент, использумые для подключения к jira через REST API и получения ее объектов таких как,
@@ -46,8 +55,6 @@ public class JiraClient implements AutoCloseable {
     private static final String BOARD_URI_TEMPLATE = RESOURCE_URI + "/board/%d";
     private static final String BOARD_CONFIG_URI_TEMPLATE = RESOURCE_URI + "/board/%d/configuration";
     private static final String BOARD_ISSUES_URI_TEMPLATE = RESOURCE_URI + "/board/%d/issue";
-    private static final String AUTH_RESOURCE_URI = "/rest/auth/1/session";
-    private static final String JSESSIONID_COOKIE = "JSESSIONID";
 
     @Getter
     private final WebClient webClient;
@@ -55,8 +62,14 @@ public class JiraClient implements AutoCloseable {
     private final String urlPathPrefix;
     @Getter
     private final URL serverUrl;
-    @Getter
-    private final String sessionId;
+    private final SessionManager sessionManager;
+    // Ресурсы HTTP клиента, созданные данным экземпляром (null, если WebClient передан извне)
+    private final ConnectionProvider connectionProvider;
+    private final LoopResources loopResources;
+    private final RetryPolicy retryPolicy;
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final BoardIssuesPageDecoder boardIssuesPageDecoder = new BoardIssuesPageDecoder(objectMapper);
+    private final ResponseCache responseCache;
 
     /**
      * Извлекает из заданного URL адрес сервера и при необходимости номер порта.
@@ -75,39 +88,49 @@ public class JiraClient implements AutoCloseable {
     }
 
     /**
-     * Возвращает экземпляр WebClient "по-умолчанию" с буферизацией 16 Мб
+     * Возвращает экземпляр WebClient "по-умолчанию" с буферизацией 16 Мб. Страницы issues разбираются потоково
+     * (см. BoardIssuesPageDecoder) и этим ограничением не затрагиваются
+     * @param settings параметры HTTP соединений
+     * @param connectionProvider пул соединений
+     * @param loopResources потоки обработки сетевых событий
      * @return экземпляр WebClient
      */
-    private static WebClient getDefaultWebClient() {
+    private static WebClient getDefaultWebClient(HttpClientSettings settings,
+                                                 ConnectionProvider connectionProvider,
+                                                 LoopResources loopResources) {
         final int size = 16 * 1024 * 1024;
         final ExchangeStrategies strategies = ExchangeStrategies.builder()
                 .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(size)).build();
-        return WebClient.builder().exchangeStrategies(strategies).build();
-    }
 
-    /**
-     * Извлекает JSESSIONID cookie из ответа сервера
-     * @param responseEntity    ответ сервера
-     * @return  значение JSESSIONID cookie
-     * @throws  IllegalArgumentException – if cookies in the responseEntity violate the cookie
-     * specification's syntax or the cookie name contains illegal characters.
-     * @throws  NullPointerException – if cookies in the responseEntity string is null
-     */
-    private static Optional<HttpCookie> getSessionCookie(ResponseEntity responseEntity) {
-        try {
-            List<String> cookies = responseEntity.getHeaders().get(HttpHeaders.SET_COOKIE);
-            for (String cookie : Objects.requireNonNull(cookies)) {
-                List<HttpCookie> httpCookies = HttpCookie.parse(cookie);
-                for (HttpCookie httpCookie : httpCookies) {
-                    if (httpCookie.getName().equals(JSESSIONID_COOKIE)) {
-                        return Optional.of(httpCookie);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            return Optional.empty();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .runOn(loopResources)
+                .compress(settings.isCompression())
+                .keepAlive(true)
+                .responseTimeout(settings.getResponseTimeout());
+        if (settings.isHttp2()) {
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
         }
-        return Optional.empty();
+
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .exchangeStrategies(strategies)
+                .build();
+    }
+
+    private static ConnectionProvider newConnectionProvider(HttpClientSettings settings) {
+        return ConnectionProvider.builder("j2aa")
+                .maxConnections(settings.getMaxConnections())
+                .maxIdleTime(settings.getMaxIdleTime())
+                .maxLifeTime(settings.getMaxLifeTime())
+                .pendingAcquireTimeout(settings.getPendingAcquireTimeout())
+                .evictInBackground(settings.getMaxIdleTime())
+                .build();
+    }
+
+    private static LoopResources newLoopResources(HttpClientSettings settings) {
+        return LoopResources.create("j2aa-http",
+                settings.getEventLoopThreads() > 0 ? settings.getEventLoopThreads() : LoopResources.DEFAULT_IO_WORKER_COUNT,
+                true);
     }
 
     /**
@@ -115,52 +138,51 @@ public class JiraClient implements AutoCloseable {
      * @param jiraUrl jiraUrl URL jira, содержащий адрес сервера для подключения
      * @param username имя пользвоателя
      * @param password пароль
-     * @param webClient WebClient для установления web сессии
+     * @param webClient WebClient для установления web сессии. Если не задан, то создается WebClient с параметрами
+     *                  httpClientSettings
+     * @param httpClientSettings параметры HTTP соединений. Если не заданы, то используются значения по-умолчанию
+     * @param accessToken персональный токен доступа (personal access token). Если задан, то вход в jira
+     *                    не выполняется, а имя пользователя и пароль не используются
+     * @param sessionStore файл для хранения сессии пользователя между запусками. Если задан, то сохраненная
+     *                     сессия используется без входа в jira и не закрывается в close()
+     * @param responseCacheDir каталог для хранения досок и их конфигураций между запусками. Если не задан,
+     *                         то они кэшируются только в памяти данного экземпляра
      */
     @Builder(setterPrefix = "with", builderMethodName = "internalBuilder")
     private JiraClient(URL jiraUrl, String username, String password,
-                                        WebClient webClient, String urlPathPrefix) {
+                       WebClient webClient, String urlPathPrefix, HttpClientSettings httpClientSettings,
+                       String accessToken, Path sessionStore, Path responseCacheDir) {
+        HttpClientSettings settings = httpClientSettings != null ? httpClientSettings : HttpClientSettings.DEFAULT;
+        retryPolicy = new RetryPolicy(settings);
+        responseCache = new ResponseCache(responseCacheDir, settings.getResponseCacheTtl(), objectMapper);
+        if (webClient == null) {
+            connectionProvider = newConnectionProvider(settings);
+            loopResources = newLoopResources(settings);
+            webClient = getDefaultWebClient(settings, connectionProvider, loopResources);
+        } else {
+            connectionProvider = null;
+            loopResources = null;
+        }
+
+        boolean connected = false;
         try {
             var serverUrl = getServerUrl(jiraUrl);
 
             assert serverUrl != null;
-//            AuthResponse authResponse = webClient.post()
-//                    .uri(serverUrl.toString(), uriBuilder -> uriBuilder.path(AUTH_RESOURCE_URI).build())
-//                    .accept(MediaType.APPLICATION_JSON)
-//                    .bodyValue(new UserCredentials(username, password))
-//                    .retrieve()
-//                    .bodyToMono(AuthResponse.class)
-//                    .block();
-//            assert authResponse != null;
-//
-//            return new JiraClient(webClient, serverUrl, authResponse.getSessionId());
             this.serverUrl = serverUrl;
-            this.webClient = webClient != null ? webClient : getDefaultWebClient();
             this.urlPathPrefix = urlPathPrefix != null ? urlPathPrefix : "";
+            this.sessionManager = new SessionManager(webClient, serverUrl, this.urlPathPrefix,
+                    username, password, accessToken, sessionStore);
+            this.webClient = webClient.mutate().filter(sessionManager).build();
 
-            ResponseEntity<AuthResponse> responseEntity = this.webClient.post()
-                    .uri(
-                            serverUrl.toString(),
-                            uriBuilder -> uriBuilder.path(this.urlPathPrefix + AUTH_RESOURCE_URI).build())
-                    .accept(MediaType.APPLICATION_JSON)
-                    .bodyValue(new UserCredentials(username, password))
-                    .retrieve()
-                    .toEntity(AuthResponse.class)
-                    .block();
-
-//            AuthResponse authResponse =responseEntity.getBody();
-
-            this.sessionId = getSessionCookie(responseEntity)
-                    .orElseThrow(() -> new JiraException("Cookie JSESSIONID отсутствует в ответе сервера"))
-                    .getValue();
-
-        } catch (WebClientRequestException e) {
-            throw new JiraException(e.getCause());
-        } catch (WebClientResponseException.Unauthorized e) {
-            throw new JiraException(
-                    String.format("Неизвестное имя пользователя или пароль (Пользователь '%s').", username), e);
+            sessionManager.connect();
+            connected = true;
         } catch (IllegalArgumentException | NoSuchElementException e) {
             throw new JiraException("Неизвестный ответ от сервера при авторизации."); //TODO не протестировано
+        } finally {
+            if (!connected) {
+                disposeResources();
+            }
         }
     }
 
@@ -173,49 +195,115 @@ public class JiraClient implements AutoCloseable {
 
     /**
      * Закрывает сессию пользователя на сервере jira. Применяется в сочетании try-with-resources
-     * После вызова данной функции данный экземпляр JiraClient нельзя испльзвоатать для полключения к Jira
+     * После вызова данной функции данный экземпляр JiraClient нельзя испльзвоатать для полключения к Jira.
+     * Сессия, сохраняемая для повторного использования (sessionStore), и токен доступа не закрываются
      */
     @Override
     public void close() {
-        ResponseEntity<Void> logoutResponse = webClient.delete()
-                .uri(
-                        serverUrl.toString(),
-                        uriBuilder -> uriBuilder.path(urlPathPrefix + AUTH_RESOURCE_URI).build())
-                .accept(MediaType.APPLICATION_JSON)
-                .cookie(JSESSIONID_COOKIE, sessionId)
-                .retrieve()
-                .toBodilessEntity().block();
-        //TODO
-//        System.out.println("Закрываем сессию: " + sessionId);
-        assert logoutResponse != null;
-        if (logoutResponse.getStatusCode() != HttpStatus.NO_CONTENT) {
-            throw new JiraException("Не удалось закрыть пользовательскую сессию.");
+        try {
+            sessionManager.close();
+        } finally {
+            disposeResources();
+        }
+    }
+
+    /**
+     * Возвращает идентификатор сессии пользователя (null, если используется токен доступа)
+     */
+    public String getSessionId() {
+        return sessionManager.getSessionId();
+    }
+
+    /**
+     * Освобождает пул соединений и потоки, созданные данным экземпляром
+     */
+    private void disposeResources() {
+        if (connectionProvider != null) {
+            connectionProvider.dispose();
+        }
+        if (loopResources != null) {
+            loopResources.dispose();
         }
     }
 
     private <T extends JiraResource> Optional<T> get(Class<T> type, String uri) {
-        // TODO Возможные исключения:
-        // Прилетел какой-то (другой) JSON - вернется DTO с пустыми полями
-        // Пустая страница - вернется null DTO
-        // Страница с текстом не JSON - вернется DecodingException
-        // или ошибка 400 BAD REQUEST
+        return getMono(type, uri).blockOptional();
+    }
 
-        T object = null;
+    private <T extends JiraResource> Mono<T> getMono(Class<T> type, String uri) {
+        // Прилетел какой-то (другой) JSON - вернется DTO с пустыми полями (отфильтровывается)
+        // Пустая страница или ответ 404 - вернется пустой Mono
+        // Страница с текстом не JSON или другой код ответа - вернется JiraException
+
+        return retryPolicy.execute(webClient.get()
+                        .uri(
+                                serverUrl.toString(),
+                                uriBuilder -> uriBuilder.path(urlPathPrefix + uri).build())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .retrieve()
+                        .onStatus(RetryPolicy::isRetryable, RetryPolicy::toException)
+                        .onStatus(httpStatus -> httpStatus == HttpStatus.NOT_FOUND, response -> Mono.empty())
+                        .onStatus(httpStatus -> httpStatus != HttpStatus.OK, response -> toException(response, uri))
+                        .bodyToMono(type), uri)
+                .onErrorMap(DecodingException.class, e -> new JiraException(
+                        String.format("%s: не удается разобрать ответ сервера jira: %s", uri, e.getMessage()), e))
+                .filter(JiraResource::isNotEmpty);
+    }
 
-        try {
-            object = webClient.get()
-                    .uri(
-                            serverUrl.toString(),
-                            uriBuilder -> uriBuilder.path(urlPathPrefix + uri).build())
-                    .accept(MediaType.APPLICATION_JSON)
-                    .cookie(JSESSIONID_COOKIE, sessionId)
-                    .retrieve()
-                    .onStatus(httpStatus -> httpStatus != HttpStatus.OK, httpStatus -> Mono.empty())
-                    .bodyToMono(type).block();
-        } catch (DecodingException ignored) {
-        }
+    /**
+     * Преобразует ответ с ошибкой, после которой запрос не повторяется, в исключение
+     */
+    private static Mono<JiraException> toException(ClientResponse response, String uri) {
+        return response.releaseBody().thenReturn(new JiraException(
+                String.format("%s: ошибка сервера jira (код ответа %d)", uri, response.rawStatusCode())));
+    }
+
+    /**
+     * Возвращает ресурс через кэш ответов: сохраненный ответ используется без запроса или проверяется
+     * условным запросом, а одинаковые одновременные запросы объединяются
+     */
+    private <T extends JiraResource> Mono<T> getCachedMono(Class<T> type, String uri) {
+        return responseCache.get(serverUrl + urlPathPrefix + uri, cached -> fetchEntry(uri, cached))
+                .flatMap(entry -> {
+                    try {
+                        return Mono.just(objectMapper.readValue(entry.getBody(), type));
+                    } catch (JsonProcessingException e) {
+                        return Mono.error(new JiraException(String.format(
+                                "%s: не удается разобрать ответ сервера jira: %s", uri, e.getMessage()), e));
+                    }
+                })
+                .filter(JiraResource::isNotEmpty);
+    }
 
-        return Optional.ofNullable(object != null && object.isNotEmpty() ? object : null);
+    private Mono<ResponseCache.Entry> fetchEntry(String uri, ResponseCache.Entry cached) {
+        return retryPolicy.execute(webClient.get()
+                .uri(
+                        serverUrl.toString(),
+                        uriBuilder -> uriBuilder.path(urlPathPrefix + uri).build())
+                .accept(MediaType.APPLICATION_JSON)
+                .headers(headers -> {
+                    if (cached != null && cached.getEtag() != null)
+                        headers.setIfNoneMatch(cached.getEtag());
+                    if (cached != null && cached.getLastModified() != null)
+                        headers.set(HttpHeaders.IF_MODIFIED_SINCE, cached.getLastModified());
+                })
+                .exchangeToMono(response -> {
+                    HttpStatus status = HttpStatus.resolve(response.rawStatusCode());
+                    if (status != null && RetryPolicy.isRetryable(status))
+                        return response.releaseBody().then(RetryPolicy.toException(response)).flatMap(Mono::error);
+                    if (status == HttpStatus.NOT_MODIFIED && cached != null)
+                        return response.releaseBody().thenReturn(cached.revalidated());
+                    if (status == HttpStatus.NOT_FOUND)
+                        return response.releaseBody().then(Mono.empty());
+                    if (status != HttpStatus.OK)
+                        return toException(response, uri).flatMap(Mono::error);
+
+                    HttpHeaders headers = response.headers().asHttpHeaders();
+                    return response.bodyToMono(String.class)
+                            .map(body -> new ResponseCache.Entry(serverUrl + urlPathPrefix + uri, body,
+                                    headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED),
+                                    System.currentTimeMillis()));
+                }), uri);
     }
 
     // TODO Описать исключения, прилетающие из get*
@@ -229,13 +317,32 @@ public class JiraClient implements AutoCloseable {
         return get(Issue.class, String.format(ISSUE_URI_TEMPLATE, id));
     }
 
+    /**
+     * Возвращает jira Issue без блокировки вызывающего потока. Запрос выполняется при подписке
+     * @param id идентификатор
+     * @return Объект Mono, содержащий Issue, или пустой, если issue не найдена
+     */
+    public Mono<Issue> getIssueMono(long id) {
+        return getMono(Issue.class, String.format(ISSUE_URI_TEMPLATE, id));
+    }
+
     /**
      * Возращает jira Board
      * @param id идентификатор
      * @return экземпляр Board
      */
     public Optional<Board> getBoard(long id) {
-        return get(Board.class, String.format(BOARD_URI_TEMPLATE, id));
+        return getBoardMono(id).blockOptional();
+    }
+
+    /**
+     * Возвращает jira Board без блокировки вызывающего потока. Запрос выполняется при подписке
+     * Ответ кэшируется: в течение responseCacheTtl используется без запроса, затем проверяется условным запросом
+     * @param id идентификатор
+     * @return Объект Mono, содержащий Board, или пустой, если доска не найдена
+     */
+    public Mono<Board> getBoardMono(long id) {
+        return getCachedMono(Board.class, String.format(BOARD_URI_TEMPLATE, id));
     }
 
     /**
@@ -244,7 +351,17 @@ public class JiraClient implements AutoCloseable {
      * @return экземпляр BoardConfig
      */
     public Optional<BoardConfig> getBoardConfig(long id) {
-        return get(BoardConfig.class, String.format(BOARD_CONFIG_URI_TEMPLATE, id));
+        return getBoardConfigMono(id).blockOptional();
+    }
+
+    /**
+     * Возвращает jira BoardConfig без блокировки вызывающего потока. Запрос выполняется при подписке
+     * Ответ кэшируется: в течение responseCacheTtl используется без запроса, затем проверяется условным запросом
+     * @param id идентификатор
+     * @return Объект Mono, содержащий BoardConfig, или пустой, если конфигурация не найдена
+     */
+    public Mono<BoardConfig> getBoardConfigMono(long id) {
+        return getCachedMono(BoardConfig.class, String.format(BOARD_CONFIG_URI_TEMPLATE, id));
     }
 
     /**
@@ -262,10 +379,123 @@ public class JiraClient implements AutoCloseable {
                                                     List<String> jiraFields,
                                                     int startAt,
                                                     int maxResults) {
-        Mono<BoardIssuesPage> object;
+        return getBoardIssuesPage(board, jqlSubFilter, jiraFields, startAt, maxResults, true);
+    }
 
+    /**
+     * Возвращает одну страницу c Issues с заданной доски.
+     * @param board доска, фильтр которой испольуется для отбора issues
+     * @param jqlSubFilter дополнительный к основному фильтру jql запрос (применяется черех AND)
+     * @param jiraFields список полей, которые необходимо выгрузить для каждого issue
+     * @param startAt   номер issue (начиная с 0) начиная с которого будет выгружена страница.
+     * @param maxResults максимальный размер страницы. Если указан 0, то импользуется значение по-умолчанию (50)
+     * @param expandChangelog true, если для каждого issue нужно выгрузить историю изменений
+     * @return Объект Mono, содержащий страницу BoardIssuesPage с найденными issues
+     */
+    public Mono<BoardIssuesPage> getBoardIssuesPage(Board board,
+                                                    String jqlSubFilter,
+                                                    List<String> jiraFields,
+                                                    int startAt,
+                                                    int maxResults,
+                                                    boolean expandChangelog) {
+        return Mono.defer(() -> {
+            AtomicReference<BoardIssuesPage> pageHeader = new AtomicReference<>();
+            return getBoardIssuesPageFlux(board, jqlSubFilter, jiraFields, startAt, maxResults, expandChangelog,
+                    pageHeader::set)
+                    .collectList()
+                    .flatMap(issues -> Mono.justOrEmpty(pageHeader.get())
+                            .map(header -> new BoardIssuesPage(
+                                    header.getStartAt(), header.getMaxResults(), header.getTotal(), issues)));
+        });
+    }
+
+    /**
+     * Возвращает Issues одной страницы с заданной доски по мере их получения от сервера.
+     * Ответ разбирается потоково, поэтому в памяти находится не вся страница, а только очередная issue
+     * @param board доска, фильтр которой испольуется для отбора issues
+     * @param jqlSubFilter дополнительный к основному фильтру jql запрос (применяется черех AND)
+     * @param jiraFields список полей, которые необходимо выгрузить для каждого issue
+     * @param startAt   номер issue (начиная с 0) начиная с которого будет выгружена страница.
+     * @param maxResults максимальный размер страницы. Если указан 0, то импользуется значение по-умолчанию (50)
+     * @param expandChangelog true, если для каждого issue нужно выгрузить историю изменений
+     * @param pageHeaderConsumer получатель заголовка страницы (startAt, maxResults, total) без issues. Вызывается
+     *                           после получения всей страницы. Может быть null
+     * @return Объект Flux, содержащий issues страницы
+     */
+    public Flux<Issue> getBoardIssuesPageFlux(Board board,
+                                              String jqlSubFilter,
+                                              List<String> jiraFields,
+                                              int startAt,
+                                              int maxResults,
+                                              boolean expandChangelog,
+                                              Consumer<BoardIssuesPage> pageHeaderConsumer) {
+        return boardIssuesPageDecoder.decode(
+                getBoardIssuesPageBody(board.getId(), jqlSubFilter, jiraFields, startAt, maxResults, expandChangelog,
+                        null),
+                pageHeaderConsumer);
+    }
+
+    /**
+     * Возвращает одну страницу c Issues с заданной доски, размер которой определяется адаптивно
+     * @param board доска, фильтр которой испольуется для отбора issues
+     * @param jqlSubFilter дополнительный к основному фильтру jql запрос (применяется черех AND)
+     * @param jiraFields список полей, которые необходимо выгрузить для каждого issue
+     * @param startAt   номер issue (начиная с 0) начиная с которого будет выгружена страница.
+     * @param pageSize адаптивный размер страницы, который учитывает время и объем ответа
+     * @param expandChangelog true, если для каждого issue нужно выгрузить историю изменений
+     * @return Объект Mono, содержащий страницу BoardIssuesPage с найденными issues
+     */
+    public Mono<BoardIssuesPage> getBoardIssuesPage(Board board,
+                                                    String jqlSubFilter,
+                                                    List<String> jiraFields,
+                                                    int startAt,
+                                                    AdaptivePageSize pageSize,
+                                                    boolean expandChangelog) {
+        return getBoardIssuesPage(board.getId(), jqlSubFilter, jiraFields, startAt, pageSize, expandChangelog);
+    }
+
+    /**
+     * Возвращает одну страницу c Issues с доски с заданным идентификатором, размер которой определяется
+     * адаптивно. Позволяет запросить первую страницу, не дожидаясь получения самой доски
+     * @param boardId идентификатор доски, фильтр которой испольуется для отбора issues
+     * @param jqlSubFilter дополнительный к основному фильтру jql запрос (применяется черех AND)
+     * @param jiraFields список полей, которые необходимо выгрузить для каждого issue
+     * @param startAt   номер issue (начиная с 0) начиная с которого будет выгружена страница.
+     * @param pageSize адаптивный размер страницы, который учитывает время и объем ответа
+     * @param expandChangelog true, если для каждого issue нужно выгрузить историю изменений
+     * @return Объект Mono, содержащий страницу BoardIssuesPage с найденными issues
+     */
+    public Mono<BoardIssuesPage> getBoardIssuesPage(long boardId,
+                                                    String jqlSubFilter,
+                                                    List<String> jiraFields,
+                                                    int startAt,
+                                                    AdaptivePageSize pageSize,
+                                                    boolean expandChangelog) {
+        return Mono.defer(() -> {
+            AtomicReference<BoardIssuesPage> pageHeader = new AtomicReference<>();
+            return fetchBoardIssues(boardId, jqlSubFilter, jiraFields, startAt, pageSize.nextPageSize(),
+                    expandChangelog, pageSize, false, pageHeader::set)
+                    .collectList()
+                    .flatMap(issues -> Mono.justOrEmpty(pageHeader.get())
+                            .map(header -> new BoardIssuesPage(
+                                    header.getStartAt(), header.getMaxResults(), header.getTotal(), issues)));
+        });
+    }
+
+    /**
+     * Запрашивает тело страницы с issues
+     * @param onFailure вызывается при каждой неудачной попытке запроса (в том числе повторяемой), может быть null
+     */
+    private Flux<DataBuffer> getBoardIssuesPageBody(long boardId,
+                                                    String jqlSubFilter,
+                                                    List<String> jiraFields,
+                                                    int startAt,
+                                                    int maxResults,
+                                                    boolean expandChangelog,
+                                                    Runnable onFailure) {
         MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
-        params.add("expand", "changelog");
+        if (expandChangelog)
+            params.add("expand", "changelog");
 
         if (jiraFields != null)
             params.add("fields", String.join(",", jiraFields));
@@ -279,22 +509,138 @@ public class JiraClient implements AutoCloseable {
         if (startAt > 0)
             params.add("startAt", Integer.toString(startAt));
 
-        try {
-            object = webClient.get()
-                    .uri(serverUrl.toString(), uriBuilder -> uriBuilder
-                            .path(String.format(urlPathPrefix + BOARD_ISSUES_URI_TEMPLATE, board.getId()))
-                            .queryParams(params)
-                            .build())
-                    .accept(MediaType.APPLICATION_JSON)
-                    .cookie(JSESSIONID_COOKIE, sessionId)
-                    .retrieve()
-                    .onStatus(httpStatus -> httpStatus != HttpStatus.OK, httpStatus -> Mono.empty())
-                    .bodyToMono(BoardIssuesPage.class);
-        } catch (DecodingException ignored) {
-            object = Mono.empty();
+        String path = String.format(urlPathPrefix + BOARD_ISSUES_URI_TEMPLATE, boardId);
+        return retryPolicy.execute(webClient.get()
+                .uri(serverUrl.toString(), uriBuilder -> uriBuilder
+                        .path(path)
+                        .queryParams(params)
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .onStatus(RetryPolicy::isRetryable, RetryPolicy::toException)
+                .onStatus(httpStatus -> httpStatus != HttpStatus.OK,
+                        response -> toException(response, path + "?startAt=" + startAt))
+                .bodyToFlux(DataBuffer.class)
+                .doOnError(e -> {
+                    if (onFailure != null)
+                        onFailure.run();
+                }), path + "?startAt=" + startAt);
+    }
+
+    /**
+     * Запрашивает issues с startAt по startAt + maxResults и учитывает время и объем ответа (или ошибку) в pageSize.
+     * Если сервер сократил размер страницы, то при fillGaps остаток диапазона запрашивается дополнительно
+     */
+    private Flux<Issue> fetchBoardIssues(long boardId,
+                                         String jqlSubFilter,
+                                         List<String> jiraFields,
+                                         int startAt,
+                                         int maxResults,
+                                         boolean expandChangelog,
+                                         AdaptivePageSize pageSize,
+                                         boolean fillGaps,
+                                         Consumer<BoardIssuesPage> pageHeaderConsumer) {
+        return Flux.defer(() -> {
+            long requestStart = System.nanoTime();
+            AtomicLong bytes = new AtomicLong();
+            AtomicInteger issuesCount = new AtomicInteger();
+            AtomicReference<BoardIssuesPage> pageHeader = new AtomicReference<>();
+
+            Flux<DataBuffer> body = getBoardIssuesPageBody(boardId, jqlSubFilter, jiraFields, startAt, maxResults,
+                    expandChangelog, pageSize::onPageFailed)
+                    .doOnNext(dataBuffer -> bytes.addAndGet(dataBuffer.readableByteCount()));
+            Flux<Issue> issues = boardIssuesPageDecoder.decode(body, header -> {
+                        pageHeader.set(header);
+                        pageSize.onPageReceived(maxResults, header.getMaxResults(), issuesCount.get(), bytes.get(),
+                                System.nanoTime() - requestStart);
+                        if (pageHeaderConsumer != null)
+                            pageHeaderConsumer.accept(header);
+                    })
+                    .doOnNext(issue -> issuesCount.incrementAndGet());
+
+            if (!fillGaps)
+                return issues;
+
+            return issues.concatWith(Flux.defer(() -> {
+                BoardIssuesPage header = pageHeader.get();
+                if (header == null || header.getMaxResults() <= 0 || header.getMaxResults() >= maxResults)
+                    return Flux.empty();
+
+                int gapStart = startAt + header.getMaxResults();
+                int gapEnd = Math.min(startAt + maxResults, header.getTotal());
+                return gapStart < gapEnd
+                        ? fetchBoardIssues(boardId, jqlSubFilter, jiraFields, gapStart, gapEnd - gapStart,
+                        expandChangelog, pageSize, true, null)
+                        : Flux.empty();
+            }));
+        });
+    }
+
+    /**
+     * Возвращает все страницы с Issues с заданной доски, следующие за первой страницей.
+     * Страницы запрашиваются параллельно (не более concurrency запросов одновременно), но
+     * возвращаются в порядке возрастания startAt
+     * @param board доска, фильтр которой испольуется для отбора issues
+     * @param jqlSubFilter дополнительный к основному фильтру jql запрос (применяется черех AND)
+     * @param jiraFields список полей, которые необходимо выгрузить для каждого issue
+     * @param firstPage ранее полученная первая страница, по которой определяются размер страницы и общее число issues
+     * @param concurrency максимальное число одновременно выполняемых запросов
+     * @return Объект Flux, содержащий оставшиеся страницы BoardIssuesPage
+     */
+    public Flux<BoardIssuesPage> getBoardIssuesPages(Board board,
+                                                     String jqlSubFilter,
+                                                     List<String> jiraFields,
+                                                     BoardIssuesPage firstPage,
+                                                     int concurrency) {
+        return getBoardIssuesPages(board, jqlSubFilter, jiraFields, firstPage, concurrency, true);
+    }
+
+    /**
+     * Возвращает все страницы с Issues с заданной доски, следующие за первой страницей.
+     * Страницы запрашиваются параллельно, но возвращаются в порядке возрастания startAt
+     * @param expandChangelog true, если для каждого issue нужно выгрузить историю изменений
+     * @see #getBoardIssuesPages(Board, String, List, BoardIssuesPage, int)
+     */
+    public Flux<BoardIssuesPage> getBoardIssuesPages(Board board,
+                                                     String jqlSubFilter,
+                                                     List<String> jiraFields,
+                                                     BoardIssuesPage firstPage,
+                                                     int concurrency,
+                                                     boolean expandChangelog) {
+        int pageSize = getPageSize(firstPage);
+        if (pageSize <= 0) {
+            return Flux.empty();
         }
+        return getBoardIssuesPages(board, jqlSubFilter, jiraFields, firstPage, concurrency, expandChangelog,
+                AdaptivePageSize.fixed(pageSize));
+    }
 
-        return object;
+    /**
+     * Возвращает все страницы с Issues с заданной доски, следующие за первой страницей.
+     * Размер каждой страницы определяется в момент ее запроса по времени и объему уже полученных страниц.
+     * Страницы запрашиваются параллельно, но возвращаются в порядке возрастания startAt
+     * @param expandChangelog true, если для каждого issue нужно выгрузить историю изменений
+     * @param pageSize адаптивный размер страницы
+     * @see #getBoardIssuesPages(Board, String, List, BoardIssuesPage, int)
+     */
+    public Flux<BoardIssuesPage> getBoardIssuesPages(Board board,
+                                                     String jqlSubFilter,
+                                                     List<String> jiraFields,
+                                                     BoardIssuesPage firstPage,
+                                                     int concurrency,
+                                                     boolean expandChangelog,
+                                                     AdaptivePageSize pageSize) {
+        return getNextPageRanges(firstPage, pageSize)
+                .flatMapSequential(range -> Mono.defer(() -> {
+                            AtomicReference<BoardIssuesPage> pageHeader = new AtomicReference<>();
+                            return fetchBoardIssues(board.getId(), jqlSubFilter, jiraFields, range.startAt, range.maxResults,
+                                    expandChangelog, pageSize, true, pageHeader::set)
+                                    .collectList()
+                                    .flatMap(issues -> Mono.justOrEmpty(pageHeader.get())
+                                            .map(header -> new BoardIssuesPage(
+                                                    range.startAt, range.maxResults, header.getTotal(), issues)));
+                        }),
+                        Math.max(concurrency, 1));
     }
 
     // TODO experimental
@@ -322,15 +668,84 @@ public class JiraClient implements AutoCloseable {
                                           List<String> jiraFields) {
 
         return getBoardIssuesPage(board, jqlSubFilter, jiraFields, 0, BoardIssuesPage.DEFAULT_MAX_RESULTS)
-                .expand(page -> {
-                    if (page.hasNextPage())
-                        return getBoardIssuesPage(board,
-                                jqlSubFilter, jiraFields,
-                                page.nextPageStartAt(),
-                                BoardIssuesPage.DEFAULT_MAX_RESULTS);
-                    else
-                        return Mono.empty();
-                })
-                .flatMap(page -> Flux.fromIterable(page.getIssues()));
+                .flatMapMany(firstPage -> getBoardIssuesFlux(board, jqlSubFilter, jiraFields, firstPage, 1));
+    }
+
+    /**
+     * Возвращает поток Issues с заданной доски, начиная с ранее полученной первой страницы.
+     * Остальные страницы запрашиваются параллельно, но Issues выдаются в порядке следования страниц.
+     * Issues очередной страницы выдаются по мере получения, не дожидаясь загрузки всей страницы,
+     * а Issues следующих страниц (не более concurrency страниц) накапливаются до ее завершения
+     * @param board доска, фильтр которой испольуется для отбора issues
+     * @param jqlSubFilter дополнительный к основному фильтру jql запрос (применяется черех AND)
+     * @param jiraFields список полей, которые необходимо выгрузить для каждого issue
+     * @param firstPage ранее полученная первая страница
+     * @param concurrency максимальное число одновременно выполняемых запросов
+     * @return Объект Flux, содержащий все issues доски
+     */
+    public Flux<Issue> getBoardIssuesFlux(Board board,
+                                          String jqlSubFilter,
+                                          List<String> jiraFields,
+                                          BoardIssuesPage firstPage,
+                                          int concurrency) {
+        int pageSize = getPageSize(firstPage);
+        if (pageSize <= 0) {
+            return Flux.fromIterable(firstPage.getIssues());
+        }
+        return getBoardIssuesFlux(board, jqlSubFilter, jiraFields, firstPage, concurrency,
+                AdaptivePageSize.fixed(pageSize));
+    }
+
+    /**
+     * Возвращает поток Issues с заданной доски, начиная с ранее полученной первой страницы.
+     * Размер каждой из остальных страниц определяется в момент ее запроса
+     * @param pageSize адаптивный размер страницы
+     * @see #getBoardIssuesFlux(Board, String, List, BoardIssuesPage, int)
+     */
+    public Flux<Issue> getBoardIssuesFlux(Board board,
+                                          String jqlSubFilter,
+                                          List<String> jiraFields,
+                                          BoardIssuesPage firstPage,
+                                          int concurrency,
+                                          AdaptivePageSize pageSize) {
+        return Flux.concat(
+                Flux.fromIterable(firstPage.getIssues()),
+                getNextPageRanges(firstPage, pageSize)
+                        .flatMapSequential(range -> fetchBoardIssues(board.getId(), jqlSubFilter, jiraFields,
+                                        range.startAt, range.maxResults, true, pageSize, true, null),
+                                Math.max(concurrency, 1)));
+    }
+
+    /**
+     * Размер страницы определяется сервером (он может ограничить запрошенный maxResults)
+     */
+    private static int getPageSize(BoardIssuesPage firstPage) {
+        return firstPage.getMaxResults() > 0 ? firstPage.getMaxResults() : firstPage.getIssues().size();
+    }
+
+    /**
+     * Диапазоны страниц, следующих за первой. Диапазон формируется в момент запроса очередной страницы,
+     * чтобы учесть размер страницы, определенный по уже полученным страницам
+     */
+    private static Flux<PageRange> getNextPageRanges(BoardIssuesPage firstPage, AdaptivePageSize pageSize) {
+        int firstPageSize = getPageSize(firstPage);
+        if (firstPageSize <= 0) {
+            return Flux.empty();
+        }
+        return Flux.generate(() -> firstPage.getStartAt() + firstPageSize, (startAt, sink) -> {
+            if (startAt >= firstPage.getTotal()) {
+                sink.complete();
+                return startAt;
+            }
+            PageRange range = new PageRange(startAt, pageSize.nextPageSize());
+            sink.next(range);
+            return startAt + range.maxResults;
+        });
+    }
+
+    @AllArgsConstructor
+    private static class PageRange {
+        final int startAt;
+        final int maxResults;
     }
 }
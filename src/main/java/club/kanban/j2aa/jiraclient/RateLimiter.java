@@ -0,0 +1,54 @@
+package club.kanban.j2aa.jiraclient;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ограничитель частоты запросов к серверу jira. Каждый запрос резервирует очередной интервал времени,
+ * и, если интервал еще не наступил, откладывается до его начала. Резервирование выполняется без блокировок,
+ * поэтому ограничитель может использоваться параллельными запросами
+ */
+class RateLimiter {
+    private final long intervalNanos;
+    // Время (System.nanoTime()), начиная с которого свободен очередной интервал
+    private final AtomicLong nextFreeSlot = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param requestsPerSecond максимальное число запросов в секунду. 0 - без ограничения
+     */
+    RateLimiter(double requestsPerSecond) {
+        this.intervalNanos = requestsPerSecond > 0 ? (long) (1e9 / requestsPerSecond) : 0;
+    }
+
+    /**
+     * Резервирует интервал для очередного запроса
+     *
+     * @return Mono, завершающийся, когда запрос может быть выполнен
+     */
+    Mono<Void> acquire() {
+        return Mono.defer(() -> {
+            long now = System.nanoTime();
+            long slot;
+            long next;
+            do {
+                slot = nextFreeSlot.get();
+                next = Math.max(slot, now) + intervalNanos;
+            } while (!nextFreeSlot.compareAndSet(slot, next));
+
+            long waitNanos = Math.max(slot, now) - now;
+            return waitNanos > 0 ? Mono.delay(Duration.ofNanos(waitNanos)).then() : Mono.empty();
+        });
+    }
+
+    /**
+     * Приостанавливает все запросы на заданное время (например, по заголовку Retry-After)
+     *
+     * @param pause время приостановки
+     */
+    void pause(Duration pause) {
+        long until = System.nanoTime() + pause.toNanos();
+        nextFreeSlot.accumulateAndGet(until, Math::max);
+    }
+}
@@ -0,0 +1,159 @@
+package club.kanban.j2aa.jiraclient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.DigestUtils;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Кэш ответов сервера jira на редко изменяемые ресурсы (доска, конфигурация доски). Ответ, полученный не позднее
+ * ttl назад, используется без запроса к серверу. Более старый ответ проверяется условным запросом
+ * (If-None-Match / If-Modified-Since), и при ответе 304 используется повторно. Одинаковые одновременные запросы
+ * объединяются в один. Если задан каталог, то ответы сохраняются в нем и используются при следующих запусках
+ */
+class ResponseCache {
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+    private static final String FILE_NAME_TEMPLATE = "%s.json";
+
+    private final Path directory;
+    private final long ttlMillis;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Mono<Entry>> requestsInFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Ответ сервера
+     */
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    static class Entry {
+        /**
+         * Адрес ресурса (для проверки совпадения ключа)
+         */
+        String key;
+        String body;
+        String etag;
+        String lastModified;
+        /**
+         * Время получения или последней проверки ответа (мс)
+         */
+        long storedAt;
+
+        Entry revalidated() {
+            return new Entry(key, body, etag, lastModified, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * @param directory каталог для хранения ответов между запусками. Может быть null
+     * @param ttl       время, в течение которого ответ используется без проверки на сервере
+     * @param objectMapper ObjectMapper для записи ответов в файлы
+     */
+    ResponseCache(Path directory, Duration ttl, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.ttlMillis = ttl != null ? Math.max(ttl.toMillis(), 0) : 0;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Возвращает ответ на запрос ресурса из кэша или от сервера
+     *
+     * @param key     адрес ресурса
+     * @param fetcher запрос ресурса. Получает ранее сохраненный ответ (или null) для условного запроса
+     *                и возвращает новый или подтвержденный ответ, либо пустой Mono, если ресурс не получен
+     * @return ответ сервера
+     */
+    Mono<Entry> get(String key, Function<Entry, Mono<Entry>> fetcher) {
+        return Mono.defer(() -> {
+            Entry cached = lookup(key);
+            if (cached != null && System.currentTimeMillis() - cached.getStoredAt() < ttlMillis) {
+                return Mono.just(cached);
+            }
+
+            AtomicReference<Mono<Entry>> self = new AtomicReference<>();
+            Mono<Entry> request = fetcher.apply(cached)
+                    .doOnNext(entry -> store(key, entry))
+                    .doFinally(signal -> requestsInFlight.remove(key, self.get()))
+                    .cache();
+            self.set(request);
+
+            Mono<Entry> requestInFlight = requestsInFlight.putIfAbsent(key, request);
+            return requestInFlight != null ? requestInFlight : request;
+        });
+    }
+
+    private Entry lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null || directory == null) {
+            return entry;
+        }
+
+        Path file = getFile(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            entry = objectMapper.readValue(inputStream, Entry.class);
+            if (!key.equals(entry.getKey())) {
+                return null;
+            }
+            entries.putIfAbsent(key, entry);
+            return entry;
+        } catch (IOException e) {
+            logger.info(String.format("Не удается прочитать кэш ответов %s: %s", file, e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Сохраняет ответ. Файл заменяется целиком, чтобы прерванная запись не повредила кэш
+     */
+    private void store(String key, Entry entry) {
+        entries.put(key, entry);
+        if (directory == null) {
+            return;
+        }
+
+        Path file = getFile(key);
+        try {
+            Files.createDirectories(directory);
+            Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                    objectMapper.writeValue(outputStream, entry);
+                }
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            logger.info(String.format("Не удается сохранить кэш ответов %s: %s", file, e.getMessage()));
+        }
+    }
+
+    private Path getFile(String key) {
+        return directory.resolve(String.format(FILE_NAME_TEMPLATE,
+                DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8))));
+    }
+}
@@ -0,0 +1,152 @@
+package club.kanban.j2aa.jiraclient;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Повтор запросов к серверу jira при временных ошибках (429, 500, 502, 503, 504 и сетевых ошибках)
+ * с экспоненциально растущей задержкой. Если сервер передал заголовок Retry-After, то задержка
+ * не меньше указанного в нем времени, и на это время приостанавливаются все запросы клиента.
+ * Перед каждой попыткой запрос проходит через ограничитель частоты запросов
+ */
+class RetryPolicy {
+    private static final Logger logger = LoggerFactory.getLogger(RetryPolicy.class);
+    private static final Set<HttpStatus> RETRYABLE_STATUSES = Set.of(HttpStatus.TOO_MANY_REQUESTS,
+            HttpStatus.INTERNAL_SERVER_ERROR, HttpStatus.BAD_GATEWAY, HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.GATEWAY_TIMEOUT);
+
+    private final int maxRetries;
+    private final Duration minBackoff;
+    private final Duration maxBackoff;
+    private final RateLimiter rateLimiter;
+
+    RetryPolicy(HttpClientSettings settings) {
+        this.maxRetries = Math.max(settings.getMaxRetries(), 0);
+        this.minBackoff = settings.getRetryMinBackoff();
+        this.maxBackoff = settings.getRetryMaxBackoff();
+        this.rateLimiter = new RateLimiter(settings.getMaxRequestsPerSecond());
+    }
+
+    /**
+     * Проверяет, является ли код ответа временной ошибкой, после которой запрос можно повторить
+     */
+    static boolean isRetryable(HttpStatus status) {
+        return RETRYABLE_STATUSES.contains(status);
+    }
+
+    /**
+     * Преобразует ответ с временной ошибкой в исключение, учитывающее заголовок Retry-After
+     */
+    static Mono<RetryableResponseException> toException(ClientResponse response) {
+        return Mono.just(new RetryableResponseException(response.rawStatusCode(),
+                parseRetryAfter(response.headers().asHttpHeaders().getFirst(HttpHeaders.RETRY_AFTER))));
+    }
+
+    /**
+     * Выполняет запрос с повторами
+     *
+     * @param request запрос
+     * @param uri     адрес запроса (для журнала)
+     * @return результат запроса
+     */
+    <T> Mono<T> execute(Mono<T> request, String uri) {
+        return rateLimiter.acquire()
+                .then(request)
+                .retryWhen(retry(uri, failure -> true));
+    }
+
+    /**
+     * Выполняет запрос с повторами. Запрос повторяется только до получения первого элемента ответа,
+     * чтобы не выдавать повторно уже полученные данные
+     *
+     * @param request запрос
+     * @param uri     адрес запроса (для журнала)
+     * @return результат запроса
+     */
+    <T> Flux<T> execute(Flux<T> request, String uri) {
+        return Flux.defer(() -> {
+            AtomicBoolean received = new AtomicBoolean();
+            return rateLimiter.acquire()
+                    .thenMany(request)
+                    .doOnNext(element -> received.set(true))
+                    .retryWhen(retry(uri, failure -> !received.get()));
+        });
+    }
+
+    private Retry retry(String uri, Predicate<Throwable> canRetry) {
+        return Retry.from(signals -> signals.concatMap(signal -> {
+            Throwable failure = signal.failure();
+            long attempt = signal.totalRetries();
+            if (attempt >= maxRetries || !isRetryable(failure) || !canRetry.test(failure)) {
+                return Mono.error(failure);
+            }
+
+            Duration delay = getBackoff(attempt);
+            if (failure instanceof RetryableResponseException) {
+                var retryAfter = ((RetryableResponseException) failure).getRetryAfter();
+                if (retryAfter.isPresent()) {
+                    rateLimiter.pause(retryAfter.get());
+                    if (retryAfter.get().compareTo(delay) > 0) {
+                        delay = retryAfter.get();
+                    }
+                }
+            }
+
+            logger.info(String.format("%s: %s. Повтор через %d мс (попытка %d из %d)",
+                    uri, failure.getMessage(), delay.toMillis(), attempt + 1, maxRetries));
+            return Mono.delay(delay);
+        }));
+    }
+
+    private static boolean isRetryable(Throwable failure) {
+        return failure instanceof RetryableResponseException || failure instanceof WebClientRequestException;
+    }
+
+    /**
+     * Экспоненциальная задержка со случайным разбросом от 50% до 100%, чтобы параллельные запросы
+     * не повторялись одновременно
+     */
+    private Duration getBackoff(long attempt) {
+        long maxMillis = maxBackoff.toMillis();
+        long millis = minBackoff.toMillis() << Math.min(attempt, 30);
+        if (millis <= 0 || millis > maxMillis) {
+            millis = maxMillis;
+        }
+        return Duration.ofMillis(millis / 2 + ThreadLocalRandom.current().nextLong(millis / 2 + 1));
+    }
+
+    /**
+     * Разбирает заголовок Retry-After, который содержит число секунд или дату в формате RFC 1123
+     */
+    static Duration parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(Long.parseLong(value.trim()), 0));
+        } catch (NumberFormatException ignored) {
+        }
+        try {
+            Duration duration = Duration.between(ZonedDateTime.now(),
+                    ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+            return duration.isNegative() ? Duration.ZERO : duration;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package club.kanban.j2aa.jiraclient;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Временная ошибка сервера jira (например, превышение допустимой частоты запросов),
+ * после которой запрос может быть повторен
+ */
+public class RetryableResponseException extends JiraException {
+    @Getter
+    private final int statusCode;
+    private final Duration retryAfter;
+
+    public RetryableResponseException(int statusCode, Duration retryAfter) {
+        super(String.format("Сервер jira временно недоступен (код ответа %d)", statusCode));
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return время, через которое сервер разрешил повторить запрос (заголовок Retry-After)
+     */
+    public Optional<Duration> getRetryAfter() {
+        return Optional.ofNullable(retryAfter);
+    }
+}
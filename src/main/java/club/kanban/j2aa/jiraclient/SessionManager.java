@@ -0,0 +1,274 @@
+package club.kanban.j2aa.jiraclient;
+
+import club.kanban.j2aa.jiraclient.dto.auth.AuthResponse;
+import club.kanban.j2aa.jiraclient.dto.auth.UserCredentials;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.*;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpCookie;
+import java.net.URL;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Аутентификация запросов к серверу jira. Если задан персональный токен доступа (personal access token), то он
+ * передается в заголовке Authorization и вход в jira не выполняется. Иначе используется сессия пользователя
+ * (cookie JSESSIONID): при получении ответа 401 выполняется повторный вход, и запрос повторяется с новой сессией.
+ * Одновременные повторные входы объединяются в один. Если задан файл сессий, то сессия сохраняется в нем
+ * и используется повторно при следующих запусках без входа и выхода из jira
+ */
+class SessionManager implements ExchangeFilterFunction {
+    private static final Logger logger = LoggerFactory.getLogger(SessionManager.class);
+    static final String AUTH_RESOURCE_URI = "/rest/auth/1/session";
+    static final String JSESSIONID_COOKIE = "JSESSIONID";
+
+    // WebClient без аутентификации, через который выполняются вход и выход
+    private final WebClient webClient;
+    private final URL serverUrl;
+    private final String urlPathPrefix;
+    private final String username;
+    private final String password;
+    private final String accessToken;
+    private final Path sessionStore;
+
+    private volatile String sessionId;
+    // Выполняемый повторный вход (guarded by this)
+    private Mono<String> renewal;
+
+    /**
+     * @param webClient     WebClient для входа и выхода
+     * @param serverUrl     адрес сервера jira
+     * @param urlPathPrefix префикс к адресу REST API
+     * @param username      имя пользователя
+     * @param password      пароль
+     * @param accessToken   персональный токен доступа. Если задан, то имя пользователя и пароль не используются
+     * @param sessionStore  файл для хранения сессий между запусками. Может быть null
+     */
+    SessionManager(WebClient webClient, URL serverUrl, String urlPathPrefix, String username, String password,
+                   String accessToken, Path sessionStore) {
+        this.webClient = webClient;
+        this.serverUrl = serverUrl;
+        this.urlPathPrefix = urlPathPrefix;
+        this.username = username;
+        this.password = password;
+        this.accessToken = accessToken != null && !accessToken.isBlank() ? accessToken.trim() : null;
+        this.sessionStore = this.accessToken == null ? sessionStore : null;
+    }
+
+    /**
+     * Возвращает идентификатор текущей сессии пользователя (null, если используется токен доступа)
+     */
+    String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Подготавливает аутентификацию: использует сохраненную сессию или выполняет вход в jira.
+     * При использовании токена доступа ничего не делает
+     */
+    void connect() {
+        if (accessToken != null)
+            return;
+
+        sessionId = loadSession().orElse(null);
+        if (sessionId != null) {
+            logger.info(String.format("Используется сохраненная сессия пользователя %s", username));
+            return;
+        }
+        renewSession(null).block();
+    }
+
+    /**
+     * Закрывает сессию пользователя на сервере jira, если она не сохраняется для повторного использования
+     */
+    void close() {
+        if (accessToken != null || sessionStore != null || sessionId == null)
+            return;
+
+        ResponseEntity<Void> logoutResponse = webClient.delete()
+                .uri(
+                        serverUrl.toString(),
+                        uriBuilder -> uriBuilder.path(urlPathPrefix + AUTH_RESOURCE_URI).build())
+                .accept(MediaType.APPLICATION_JSON)
+                .cookie(JSESSIONID_COOKIE, sessionId)
+                .retrieve()
+                .toBodilessEntity().block();
+
+        assert logoutResponse != null;
+        if (logoutResponse.getStatusCode() != HttpStatus.NO_CONTENT) {
+            throw new JiraException("Не удалось закрыть пользовательскую сессию.");
+        }
+    }
+
+    @Override
+    @NotNull
+    public Mono<ClientResponse> filter(@NotNull ClientRequest request, @NotNull ExchangeFunction next) {
+        if (accessToken != null) {
+            return next.exchange(ClientRequest.from(request)
+                    .headers(headers -> headers.setBearerAuth(accessToken))
+                    .build());
+        }
+
+        return Mono.defer(() -> {
+            String usedSessionId = sessionId;
+            return next.exchange(withSession(request, usedSessionId))
+                    .flatMap(response -> {
+                        if (response.rawStatusCode() != HttpStatus.UNAUTHORIZED.value())
+                            return Mono.just(response);
+
+                        logger.info("Сессия пользователя недействительна. Повторный вход в jira");
+                        return response.releaseBody()
+                                .then(renewSession(usedSessionId))
+                                .flatMap(newSessionId -> next.exchange(withSession(request, newSessionId)));
+                    });
+        });
+    }
+
+    private static ClientRequest withSession(ClientRequest request, String sessionId) {
+        if (sessionId == null)
+            return request;
+        return ClientRequest.from(request)
+                .cookies(cookies -> cookies.set(JSESSIONID_COOKIE, sessionId))
+                .build();
+    }
+
+    /**
+     * Выполняет вход в jira, если сессия expiredSessionId еще не заменена другим запросом
+     *
+     * @param expiredSessionId недействительная сессия
+     * @return идентификатор новой сессии
+     */
+    private synchronized Mono<String> renewSession(String expiredSessionId) {
+        if (sessionId != null && !sessionId.equals(expiredSessionId))
+            return Mono.just(sessionId);
+
+        if (renewal == null) {
+            renewal = login()
+                    .doOnNext(newSessionId -> {
+                        sessionId = newSessionId;
+                        storeSession(newSessionId);
+                    })
+                    .doFinally(signal -> {
+                        synchronized (this) {
+                            renewal = null;
+                        }
+                    })
+                    .cache();
+        }
+        return renewal;
+    }
+
+    /**
+     * Выполняет вход в jira. Ошибки входа (неверные имя пользователя или пароль, недоступный сервер)
+     * преобразуются в JiraException как при подключении, так и при повторном входе по ответу 401
+     */
+    private Mono<String> login() {
+        return webClient.post()
+                .uri(
+                        serverUrl.toString(),
+                        uriBuilder -> uriBuilder.path(urlPathPrefix + AUTH_RESOURCE_URI).build())
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserCredentials(username, password))
+                .retrieve()
+                .toEntity(AuthResponse.class)
+                .map(responseEntity -> getSessionCookie(responseEntity)
+                        .orElseThrow(() -> new JiraException("Cookie JSESSIONID отсутствует в ответе сервера"))
+                        .getValue())
+                .onErrorMap(WebClientResponseException.Unauthorized.class, e -> new JiraException(
+                        String.format("Неизвестное имя пользователя или пароль (Пользователь '%s').", username), e))
+                .onErrorMap(WebClientRequestException.class, e -> new JiraException(e.getCause()));
+    }
+
+    /**
+     * Извлекает JSESSIONID cookie из ответа сервера
+     * @param responseEntity    ответ сервера
+     * @return  значение JSESSIONID cookie
+     */
+    private static Optional<HttpCookie> getSessionCookie(ResponseEntity<?> responseEntity) {
+        try {
+            List<String> cookies = responseEntity.getHeaders().get(HttpHeaders.SET_COOKIE);
+            for (String cookie : Objects.requireNonNull(cookies)) {
+                List<HttpCookie> httpCookies = HttpCookie.parse(cookie);
+                for (HttpCookie httpCookie : httpCookies) {
+                    if (httpCookie.getName().equals(JSESSIONID_COOKIE)) {
+                        return Optional.of(httpCookie);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+        return Optional.empty();
+    }
+
+    private String getStoreKey() {
+        return username + "@" + serverUrl + urlPathPrefix;
+    }
+
+    private Optional<String> loadSession() {
+        if (sessionStore == null || !Files.exists(sessionStore))
+            return Optional.empty();
+
+        try (InputStream in = Files.newInputStream(sessionStore)) {
+            Properties sessions = new Properties();
+            sessions.load(in);
+            return Optional.ofNullable(sessions.getProperty(getStoreKey()));
+        } catch (IOException e) {
+            logger.info(String.format("Не удалось прочитать файл сессий %s: %s", sessionStore, e.getMessage()));
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Сохраняет сессию в файл сессий. Файл доступен только владельцу и заменяется атомарно,
+     * чтобы одновременные запуски не читали его частично записанным
+     */
+    private void storeSession(String newSessionId) {
+        if (sessionStore == null)
+            return;
+
+        synchronized (SessionManager.class) {
+            try {
+                Properties sessions = new Properties();
+                if (Files.exists(sessionStore)) {
+                    try (InputStream in = Files.newInputStream(sessionStore)) {
+                        sessions.load(in);
+                    }
+                }
+                sessions.setProperty(getStoreKey(), newSessionId);
+
+                Path parent = sessionStore.toAbsolutePath().getParent();
+                Files.createDirectories(parent);
+                Path tmpFile = Files.createTempFile(parent, sessionStore.getFileName().toString(), ".tmp");
+                try {
+                    if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+                        Files.setPosixFilePermissions(tmpFile, PosixFilePermissions.fromString("rw-------"));
+                    }
+                    try (OutputStream out = Files.newOutputStream(tmpFile)) {
+                        sessions.store(out, null);
+                    }
+                    Files.move(tmpFile, sessionStore, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(tmpFile);
+                }
+            } catch (IOException e) {
+                logger.info(String.format("Не удалось сохранить сессию в файл %s: %s", sessionStore, e.getMessage()));
+            }
+        }
+    }
+}
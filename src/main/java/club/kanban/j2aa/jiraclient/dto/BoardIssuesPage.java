@@ -2,8 +2,10 @@ package club.kanban.j2aa.jiraclient.dto;
 
 import club.kanban.j2aa.jiraclient.dto.issue.Issue;
 import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.ToString;
 import lombok.experimental.FieldDefaults;
 
@@ -13,6 +15,8 @@ import java.util.List;
 @Getter
 @ToString
 @EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class BoardIssuesPage {
     public static final int DEFAULT_MAX_RESULTS = 50;
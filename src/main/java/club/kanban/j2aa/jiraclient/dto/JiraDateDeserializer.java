@@ -0,0 +1,134 @@
+package club.kanban.j2aa.jiraclient.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.DateDeserializers;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * Десериализатор дат jira в формате yyyy-MM-dd'T'HH:mm:ss.SSSZ (например 2021-03-15T10:20:30.000+0300).
+ * Дата разбирается непосредственно из символов JSON в миллисекунды без универсального форматтера.
+ * Остальные представления (число миллисекунд, смещение вида +03:00 или Z, другие форматы) разбираются
+ * стандартным десериализатором Jackson
+ */
+public class JiraDateDeserializer extends DateDeserializers.DateDeserializer {
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long SECONDS_PER_DAY = 24L * 60 * 60;
+    // Длина даты без смещения: yyyy-MM-ddTHH:mm:ss.SSS
+    private static final int LOCAL_LENGTH = 23;
+    private static final long NOT_PARSED = Long.MIN_VALUE;
+    // Более ранние даты стандартный десериализатор относит к юлианскому календарю
+    private static final int MIN_YEAR = 1583;
+
+    @Override
+    public Date deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.hasToken(JsonToken.VALUE_STRING)) {
+            long time = parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+            if (time != NOT_PARSED) {
+                return new Date(time);
+            }
+        }
+        return super.deserialize(p, ctxt);
+    }
+
+    /**
+     * Разбирает дату в формате jira
+     *
+     * @param chars  символы
+     * @param offset позиция начала даты
+     * @param length длина даты
+     * @return время (мс) или NOT_PARSED, если дата не в формате jira
+     */
+    static long parse(char[] chars, int offset, int length) {
+        if (length < LOCAL_LENGTH + 1
+                || chars[offset + 4] != '-' || chars[offset + 7] != '-' || chars[offset + 10] != 'T'
+                || chars[offset + 13] != ':' || chars[offset + 16] != ':' || chars[offset + 19] != '.') {
+            return NOT_PARSED;
+        }
+
+        int year = digits(chars, offset, 4);
+        int month = digits(chars, offset + 5, 2);
+        int day = digits(chars, offset + 8, 2);
+        int hour = digits(chars, offset + 11, 2);
+        int minute = digits(chars, offset + 14, 2);
+        int second = digits(chars, offset + 17, 2);
+        int millis = digits(chars, offset + 20, 3);
+        int offsetSeconds = parseOffset(chars, offset + LOCAL_LENGTH, length - LOCAL_LENGTH);
+        if (year < MIN_YEAR || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59 || millis < 0
+                || offsetSeconds == Integer.MIN_VALUE) {
+            return NOT_PARSED;
+        }
+
+        long seconds = epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second
+                - offsetSeconds;
+        return seconds * MILLIS_PER_SECOND + millis;
+    }
+
+    /**
+     * Разбирает смещение вида +hhmm
+     *
+     * @return смещение (сек) или Integer.MIN_VALUE, если смещение в другом виде
+     */
+    private static int parseOffset(char[] chars, int offset, int length) {
+        if (length != 5 || (chars[offset] != '+' && chars[offset] != '-')) {
+            return Integer.MIN_VALUE;
+        }
+        int hours = digits(chars, offset + 1, 2);
+        int minutes = digits(chars, offset + 3, 2);
+        if (hours < 0 || hours > 18 || minutes < 0 || minutes > 59) {
+            return Integer.MIN_VALUE;
+        }
+        int seconds = hours * 3600 + minutes * 60;
+        return chars[offset] == '-' ? -seconds : seconds;
+    }
+
+    /**
+     * Возвращает число из count десятичных цифр или -1, если встречен другой символ
+     */
+    private static int digits(char[] chars, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Возвращает число дней от 1970-01-01 по григорианскому календарю
+     */
+    private static long epochDay(int year, int month, int day) {
+        // Год считается с марта, чтобы 29 февраля было последним днем года
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+}
@@ -1,6 +1,7 @@
 package club.kanban.j2aa.jiraclient.dto.issue.changelog;
 
 import club.kanban.j2aa.jiraclient.dto.issue.changelog.history.History;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -18,6 +19,7 @@ public class Changelog {
     int startAt;
     int maxResults;
     int total;
+    @JsonDeserialize(using = HistoriesDeserializer.class)
     List<History> histories;
 
     public List<History> getHistories() {
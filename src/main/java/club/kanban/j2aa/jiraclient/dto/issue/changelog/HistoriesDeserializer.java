@@ -0,0 +1,44 @@
+package club.kanban.j2aa.jiraclient.dto.issue.changelog;
+
+import club.kanban.j2aa.jiraclient.dto.issue.changelog.history.History;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Десериализатор истории изменений, который не сохраняет записи History без значимых изменений
+ * (см. HistoryItemsDeserializer)
+ */
+public class HistoriesDeserializer extends JsonDeserializer<List<History>> {
+    @Override
+    public List<History> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            throw ctxt.wrongTokenException(p, List.class, JsonToken.START_ARRAY, "Ожидается история изменений");
+        }
+
+        List<History> histories = new ArrayList<>();
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                continue;
+            }
+            History history = ctxt.readValue(p, History.class);
+            if (!history.getHistoryItems().isEmpty()) {
+                histories.add(history);
+            }
+        }
+        return histories.isEmpty() ? Collections.emptyList() : histories;
+    }
+
+    @Override
+    public List<History> getNullValue(DeserializationContext ctxt) {
+        return Collections.emptyList();
+    }
+}
@@ -1,6 +1,8 @@
 package club.kanban.j2aa.jiraclient.dto.issue.changelog.history;
 
+import club.kanban.j2aa.jiraclient.dto.JiraDateDeserializer;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -17,9 +19,10 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class History {
     long id;
-    Object author;
+    @JsonDeserialize(using = JiraDateDeserializer.class)
     Date created;
     @JsonProperty("items")
+    @JsonDeserialize(using = HistoryItemsDeserializer.class)
     List<HistoryItem> historyItems;
 
     public List<HistoryItem> getHistoryItems() {
@@ -1,20 +1,37 @@
 package club.kanban.j2aa.jiraclient.dto.issue.changelog.history;
 
 import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.ToString;
 import lombok.experimental.FieldDefaults;
 
 @Getter
 @ToString
 @EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class HistoryItem {
+    public static final String FIELD_STATUS = "status";
+    public static final String FIELD_FLAGGED = "Flagged";
+
     String field;
     String fieldtype;
     String from;
     String fromString;
     String to;
     String toString;
+
+    /**
+     * Проверяет, используется ли изменение заданного поля при конвертации задач
+     *
+     * @param field поле
+     * @return true для изменений статуса и флага
+     */
+    public static boolean isRelevant(String field) {
+        return FIELD_STATUS.equals(field) || FIELD_FLAGGED.equals(field);
+    }
 }
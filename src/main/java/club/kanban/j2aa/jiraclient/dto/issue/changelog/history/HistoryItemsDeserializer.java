@@ -0,0 +1,80 @@
+package club.kanban.j2aa.jiraclient.dto.issue.changelog.history;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Десериализатор списка изменений History, который сохраняет только изменения статуса и флага (Flagged).
+ * Остальные изменения (описание, спринты, пользовательские поля и т.д.) пропускаются при разборе
+ * и не занимают память
+ */
+public class HistoryItemsDeserializer extends JsonDeserializer<List<HistoryItem>> {
+    @Override
+    public List<HistoryItem> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            throw ctxt.wrongTokenException(p, List.class, JsonToken.START_ARRAY, "Ожидается список изменений");
+        }
+
+        List<HistoryItem> items = null;
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                continue;
+            }
+
+            String field = null, fieldtype = null, from = null, fromString = null, to = null, toString = null;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.getCurrentName();
+                JsonToken value = p.nextToken();
+                if (value.isStructStart()) {
+                    p.skipChildren();
+                    continue;
+                }
+                String text = value == JsonToken.VALUE_NULL ? null : p.getText();
+                switch (name) {
+                    case "field":
+                        field = text;
+                        break;
+                    case "fieldtype":
+                        fieldtype = text;
+                        break;
+                    case "from":
+                        from = text;
+                        break;
+                    case "fromString":
+                        fromString = text;
+                        break;
+                    case "to":
+                        to = text;
+                        break;
+                    case "toString":
+                        toString = text;
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            if (HistoryItem.isRelevant(field)) {
+                if (items == null) {
+                    items = new ArrayList<>(1);
+                }
+                items.add(new HistoryItem(field, fieldtype, from, fromString, to, toString));
+            }
+        }
+        return items != null ? items : Collections.emptyList();
+    }
+
+    @Override
+    public List<HistoryItem> getNullValue(DeserializationContext ctxt) {
+        return Collections.emptyList();
+    }
+}
@@ -1,6 +1,8 @@
 package club.kanban.j2aa.jiraclient.dto.issue.fields;
 
+import club.kanban.j2aa.jiraclient.dto.JiraDateDeserializer;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -17,7 +19,10 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Fields {
     String summary;
+    @JsonDeserialize(using = JiraDateDeserializer.class)
     Date created;
+    @JsonDeserialize(using = JiraDateDeserializer.class)
+    Date updated;
     List<String> labels;
     List<Resource> fixVersions;
     List<Resource> components;
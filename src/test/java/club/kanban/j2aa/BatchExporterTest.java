@@ -0,0 +1,116 @@
+package club.kanban.j2aa;
+
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchExporterTest {
+    private static final int BOARDS_COUNT = 4;
+    private static final int BATCH_CONCURRENCY = 2;
+    private static final long FAILING_BOARD_ID = 3;
+    private static final long BOARD_RESPONSE_DELAY_MILLIS = 100;
+
+    @TempDir
+    Path tempDir;
+    private JiraServerStub jiraServer;
+    private BatchExporter batchExporter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jiraServer = new JiraServerStub();
+        ConnectionProfile baseProfile = TestProfiles.newProfile(Map.of(
+                "batch-concurrency", BATCH_CONCURRENCY,
+                "output-file", tempDir.resolve("export.json").toString()));
+        batchExporter = new BatchExporter(baseProfile, "username", "password", TestProfiles.newFileAdapterFactory());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        jiraServer.close();
+    }
+
+    @Test
+    void exportAll() throws IOException, InterruptedException {
+        // Одновременно выгружаемые доски: запрос доски выполняется первым при выгрузке каждой доски
+        AtomicInteger activeBoards = new AtomicInteger();
+        AtomicInteger maxActiveBoards = new AtomicInteger();
+        for (long boardId = 1; boardId <= BOARDS_COUNT; boardId++) {
+            String boardPath = JiraServerStub.BOARD_PATH + boardId;
+            String board = JiraServerStub.BOARD_JSON_STUB.replaceFirst("\"id\": 1", "\"id\": " + boardId);
+            jiraServer.setHandler(boardPath, request -> {
+                maxActiveBoards.accumulateAndGet(activeBoards.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(BOARD_RESPONSE_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    activeBoards.decrementAndGet();
+                }
+                return JiraServerStub.json(board);
+            });
+        }
+
+        List<ConnectionProfile> profiles = batchExporter.getProfiles(getBoardAddresses());
+        assertEquals(0, batchExporter.exportAll(profiles));
+        assertEquals(BATCH_CONCURRENCY, maxActiveBoards.get());
+
+        // Каждая доска выгружена в свой файл, имя которого содержит сервер
+        URL serverUrl = jiraServer.getServerUrl();
+        String serverName = serverUrl.getHost() + "-" + serverUrl.getPort();
+        for (long boardId = 1; boardId <= BOARDS_COUNT; boardId++) {
+            Path outputFile = tempDir.resolve(String.format("%s-board-%d.json", serverName, boardId));
+            assertEquals(outputFile.toString(), profiles.get((int) boardId - 1).getOutputFileName());
+            assertTrue(Files.size(outputFile) > 0);
+        }
+        try (var files = Files.list(tempDir)) {
+            assertEquals(BOARDS_COUNT, files.count());
+        }
+    }
+
+    @Test
+    void failedBoardDoesNotAbortOthers() throws IOException, InterruptedException {
+        jiraServer.setHandler(JiraServerStub.BOARD_PATH + FAILING_BOARD_ID + "/issue",
+                request -> new MockResponse().setResponseCode(400));
+
+        List<ConnectionProfile> profiles = batchExporter.getProfiles(getBoardAddresses());
+        assertEquals(1, batchExporter.exportAll(profiles));
+        for (int i = 0; i < BOARDS_COUNT; i++) {
+            Path outputFile = Path.of(profiles.get(i).getOutputFileName());
+            assertEquals(i + 1 != FAILING_BOARD_ID, Files.exists(outputFile), outputFile.toString());
+        }
+    }
+
+    @Test
+    void exitCode() {
+        assertEquals(0, J2aaInitializer.runBatch(batchExporter, List.of(String.join(", ", getBoardAddresses()))));
+
+        jiraServer.setHandler(JiraServerStub.BOARD_PATH + FAILING_BOARD_ID + "/issue",
+                request -> new MockResponse().setResponseCode(400));
+        assertEquals(1, J2aaInitializer.runBatch(batchExporter, getBoardAddresses()));
+
+        // Файл профиля подключения не найден
+        assertEquals(1, J2aaInitializer.runBatch(batchExporter,
+                List.of(tempDir.resolve("missing.xml").toString())));
+    }
+
+    private List<String> getBoardAddresses() {
+        List<String> addresses = new ArrayList<>(BOARDS_COUNT);
+        for (long boardId = 1; boardId <= BOARDS_COUNT; boardId++) {
+            addresses.add(jiraServer.getBoardAddress(boardId));
+        }
+        return addresses;
+    }
+}
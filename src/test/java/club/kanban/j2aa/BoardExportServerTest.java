@@ -0,0 +1,238 @@
+package club.kanban.j2aa;
+
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardExportServerTest {
+    private static final long BOARD_ID = 1;
+    private static final long UNKNOWN_BOARD_ID = 99;
+    private static final String BOARD_PATH = JiraServerStub.BOARD_PATH + BOARD_ID;
+    private static final String ISSUES_PATH = BOARD_PATH + "/issue";
+    private static final Duration TTL = Duration.ofMinutes(5);
+    private static final int CONCURRENT_REQUESTS = 4;
+    private static final long ISSUES_RESPONSE_DELAY_MILLIS = 300;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    // Доска и ее конфигурация кэшируются JiraClient, поэтому выгрузки из jira считаются по запросам
+    // первой страницы задач
+    private final AtomicInteger exportsCount = new AtomicInteger();
+    private volatile long issuesResponseDelayMillis;
+    private JiraServerStub jiraServer;
+    private MutableClock clock;
+    private BoardExportServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jiraServer = new JiraServerStub();
+        clock = new MutableClock();
+        jiraServer.setHandler(ISSUES_PATH, request -> {
+            String startAt = Objects.requireNonNull(request.getRequestUrl()).queryParameter("startAt");
+            if (startAt == null || "0".equals(startAt)) {
+                exportsCount.incrementAndGet();
+            }
+            try {
+                Thread.sleep(issuesResponseDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return JiraServerStub.issuesPage(request);
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+        jiraServer.close();
+    }
+
+    @Test
+    void exportFormats() throws IOException, InterruptedException {
+        startServer(TTL);
+
+        HttpResponse<String> csv = get("/boards/" + BOARD_ID + ".csv");
+        assertEquals(200, csv.statusCode());
+        assertEquals("text/csv; charset=utf-8", csv.headers().firstValue("Content-Type").orElse(null));
+        assertTrue(csv.body().startsWith("ID,Link,Name,"));
+
+        HttpResponse<String> json = get("/boards/" + BOARD_ID + ".JSON");
+        assertEquals(200, json.statusCode());
+        assertEquals("application/json; charset=utf-8", json.headers().firstValue("Content-Type").orElse(null));
+        assertTrue(json.body().contains("\"ID\""));
+
+        // Конвертированные задачи доски используются для всех форматов
+        assertEquals(1, exportsCount.get());
+    }
+
+    @Test
+    void notFound() throws IOException, InterruptedException {
+        String unknownBoardPath = JiraServerStub.BOARD_PATH + UNKNOWN_BOARD_ID;
+        for (String path : List.of(unknownBoardPath, unknownBoardPath + "/configuration", unknownBoardPath + "/issue")) {
+            jiraServer.setHandler(path, request -> new MockResponse().setResponseCode(404));
+        }
+        startServer(TTL);
+
+        assertEquals(404, get("/boards/" + UNKNOWN_BOARD_ID + ".csv").statusCode());
+        assertEquals(404, get("/boards/" + BOARD_ID + ".xml").statusCode());
+        assertEquals(404, get("/boards/" + BOARD_ID).statusCode());
+        assertEquals(404, get("/boards/board.csv").statusCode());
+        assertEquals(0, exportsCount.get());
+    }
+
+    @Test
+    void jiraError() throws IOException, InterruptedException {
+        jiraServer.setHandler(ISSUES_PATH, request -> new MockResponse().setResponseCode(400));
+        startServer(TTL);
+        assertEquals(502, get("/boards/" + BOARD_ID + ".csv").statusCode());
+    }
+
+    @Test
+    void errorAfterConnectNotProbed() throws IOException, InterruptedException {
+        // Без кэша ответов каждая проверка доски - отдельный запрос к jira
+        startServer(TTL, Map.of("max-issues-in-memory", 1, "response-cache-ttl", 0));
+        assertEquals(502, get("/boards/" + BOARD_ID + ".csv").statusCode());
+        assertEquals(1, jiraServer.getRequestCount(BOARD_PATH));
+    }
+
+    @Test
+    void serverOutageNotProbed() throws IOException, InterruptedException {
+        jiraServer.setHandler(ISSUES_PATH, request -> new MockResponse().setResponseCode(503));
+        startServer(TTL, Map.of("http-max-retries", 0, "response-cache-ttl", 0));
+        assertEquals(502, get("/boards/" + BOARD_ID + ".csv").statusCode());
+        assertEquals(1, jiraServer.getRequestCount(BOARD_PATH));
+    }
+
+    @Test
+    void failedProbeKeepsOriginalError() throws IOException, InterruptedException {
+        jiraServer.setHandler(ISSUES_PATH, request -> new MockResponse().setResponseCode(400));
+        // Доска доступна при подключении, но не при последующей проверке
+        AtomicInteger boardRequests = new AtomicInteger();
+        jiraServer.setHandler(BOARD_PATH, request -> boardRequests.getAndIncrement() == 0
+                ? JiraServerStub.json(JiraServerStub.BOARD_JSON_STUB) : new MockResponse().setResponseCode(403));
+        startServer(TTL, Map.of("response-cache-ttl", 0));
+
+        HttpResponse<String> response = get("/boards/" + BOARD_ID + ".csv");
+        assertEquals(502, response.statusCode());
+        assertTrue(response.body().contains("(код ответа 400)"), response.body());
+        assertEquals(2, boardRequests.get());
+    }
+
+    @Test
+    void methodNotAllowed() throws IOException, InterruptedException {
+        startServer(TTL);
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(getUri("/boards/" + BOARD_ID + ".csv"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, response.statusCode());
+        assertEquals(0, exportsCount.get());
+    }
+
+    @Test
+    void concurrentRequests() throws IOException {
+        // Задачи отдаются с задержкой, чтобы все запросы поступили во время выгрузки. Без хранения в памяти
+        // (ttl = 0) доска выгружается один раз только за счет объединения одновременных запросов
+        issuesResponseDelayMillis = ISSUES_RESPONSE_DELAY_MILLIS;
+        startServer(Duration.ZERO);
+
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>(CONCURRENT_REQUESTS);
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            responses.add(httpClient.sendAsync(HttpRequest.newBuilder(getUri("/boards/" + BOARD_ID + ".csv")).build(),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        String body = responses.get(0).join().body();
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.join().statusCode());
+            assertEquals(body, response.join().body());
+        }
+        assertEquals(1, exportsCount.get());
+    }
+
+    @Test
+    void cacheExpiration() throws IOException, InterruptedException {
+        startServer(TTL);
+
+        assertEquals(200, get("/boards/" + BOARD_ID + ".csv").statusCode());
+        clock.advance(TTL.minusMillis(1));
+        assertEquals(200, get("/boards/" + BOARD_ID + ".csv").statusCode());
+        assertEquals(1, exportsCount.get());
+
+        clock.advance(Duration.ofMillis(1));
+        assertEquals(200, get("/boards/" + BOARD_ID + ".csv").statusCode());
+        assertEquals(2, exportsCount.get());
+    }
+
+    private void startServer(Duration ttl) throws IOException {
+        startServer(ttl, Map.of());
+    }
+
+    private void startServer(Duration ttl, Map<String, Object> properties) throws IOException {
+        Map<String, Object> values = new HashMap<>(properties);
+        values.put("board-url", jiraServer.getBoardAddress(BOARD_ID));
+        ConnectionProfile profile = TestProfiles.newProfile(values);
+        server = new BoardExportServer(profile, "username", "password", TestProfiles.newFileAdapterFactory(), 0,
+                ttl, clock);
+        server.start();
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return httpClient.send(HttpRequest.newBuilder(getUri(path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI getUri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+
+    /**
+     * Часы, время которых изменяется только вызовом advance()
+     */
+    private static class MutableClock extends Clock {
+        private final AtomicLong millis = new AtomicLong(Instant.parse("2021-03-15T10:00:00Z").toEpochMilli());
+
+        void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package club.kanban.j2aa;
+
+import ch.qos.logback.classic.Level;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class J2aaCliTest {
+    private static final long BOARD_ID = 1;
+    private static final String CSV_HEADER = "ID,Link,Name,";
+
+    @TempDir
+    Path tempDir;
+    private JiraServerStub jiraServer;
+    private Path configFile;
+    private PrintStream systemOut;
+    private PrintStream systemErr;
+    private ByteArrayOutputStream out;
+    private ByteArrayOutputStream err;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jiraServer = new JiraServerStub();
+        configFile = Files.writeString(tempDir.resolve("config"),
+                "username=username\npassword=password\njira-fields=" + TestProfiles.JIRA_FIELDS + "\n");
+
+        // Журнал направляется в stderr до перехвата вывода, чтобы записи других потоков,
+        // сделанные до запуска J2aaCli, не попадали в stdout
+        J2aaCli.configureLogging(Level.INFO);
+        systemOut = System.out;
+        systemErr = System.err;
+        out = new ByteArrayOutputStream();
+        err = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+        System.setErr(new PrintStream(err, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        System.setOut(systemOut);
+        System.setErr(systemErr);
+        jiraServer.close();
+    }
+
+    @Test
+    void exportToStdout() {
+        assertEquals(J2aaCli.EXIT_OK, run("--output=-"));
+
+        // В stdout только выгрузка, журнал выводится в stderr
+        String data = out.toString(StandardCharsets.UTF_8);
+        assertTrue(data.startsWith(CSV_HEADER), data);
+        assertTrue(data.lines().count() > 1);
+        assertTrue(data.lines().skip(1).allMatch(line -> line.matches("^[A-Z]+-\\d+,.*")), data);
+        assertFalse(data.contains(" INFO "), data);
+        assertTrue(err.toString().contains("INFO  " + J2aaCli.class.getName()));
+    }
+
+    @Test
+    void exportToFile() throws IOException {
+        Path outputFile = tempDir.resolve("export.csv");
+        assertEquals(J2aaCli.EXIT_OK, run("--output=" + outputFile));
+        assertTrue(Files.readString(outputFile).startsWith(CSV_HEADER));
+        assertEquals(0, out.size(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportFailure() {
+        jiraServer.setHandler(JiraServerStub.BOARD_PATH + BOARD_ID + "/issue",
+                request -> new MockResponse().setResponseCode(400));
+        assertEquals(J2aaCli.EXIT_FAILURE, run("--output=" + tempDir.resolve("export.csv")));
+    }
+
+    @Test
+    void usageErrors() {
+        // Неизвестный параметр, в том числе пароль в командной строке
+        assertEquals(J2aaCli.EXIT_USAGE, run("--output=-", "--password=secret"));
+        // Не задан файл для экспорта
+        assertEquals(J2aaCli.EXIT_USAGE, run());
+        // Неверный интервал выгрузки
+        assertEquals(J2aaCli.EXIT_USAGE, run("--output=-", "--schedule=0"));
+        assertEquals(0, out.size(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    private int run(String... args) {
+        String[] cliArgs = new String[args.length + 3];
+        cliArgs[0] = "--" + J2aaCli.ARG_HEADLESS;
+        cliArgs[1] = "--config=" + configFile;
+        cliArgs[2] = "--board-url=" + jiraServer.getBoardAddress(BOARD_ID);
+        System.arraycopy(args, 0, cliArgs, 3, args.length);
+        return J2aaCli.run(cliArgs);
+    }
+}
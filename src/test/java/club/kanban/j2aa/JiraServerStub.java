@@ -0,0 +1,154 @@
+package club.kanban.j2aa;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Заглушка сервера jira для тестов выгрузки. Любая доска отвечает данными из stubs/board.json,
+ * stubs/boardconfig.json и stubs/issueset.json (с идентификатором запрошенной доски). Ответ на отдельный адрес
+ * можно заменить, а число запросов к каждому адресу доступно через getRequestCount()
+ */
+public class JiraServerStub implements AutoCloseable {
+    public static final String BOARD_PATH = "/rest/agile/1.0/board/";
+    public static final String SESSION_PATH = "/rest/auth/1/session";
+    public static final String SESSION_ID = "stub-session";
+    public static final String BOARD_JSON_STUB = readResource("stubs/board.json");
+    public static final String BOARD_CONFIGURATION_JSON_STUB = readResource("stubs/boardconfig.json");
+    public static final String BOARD_ISSUES_JSON_STUB = readResource("stubs/issueset.json");
+    private static final Pattern BOARD_PATH_PATTERN = Pattern.compile("^" + BOARD_PATH + "(\\d+)(/configuration|/issue)?$");
+
+    private final MockWebServer server = new MockWebServer();
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private final Map<String, Function<RecordedRequest, MockResponse>> handlers = new ConcurrentHashMap<>();
+
+    public JiraServerStub() throws IOException {
+        server.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) {
+                String path = Objects.requireNonNull(request.getRequestUrl()).encodedPath();
+                requestCounts.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+                Function<RecordedRequest, MockResponse> handler = handlers.get(path);
+                return handler != null ? handler.apply(request) : defaultResponse(path, request);
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * Возвращает ответ с телом JSON
+     */
+    public static MockResponse json(String body) {
+        return new MockResponse()
+                .setResponseCode(200)
+                .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .setBody(body);
+    }
+
+    /**
+     * Возвращает страницу задач stubs/issueset.json с позицией startAt из запроса
+     */
+    public static MockResponse issuesPage(RecordedRequest request) {
+        String startAt = Objects.requireNonNull(request.getRequestUrl()).queryParameter("startAt");
+        return json(BOARD_ISSUES_JSON_STUB.replaceFirst("\\{",
+                String.format("{\"startAt\": %s,", startAt != null ? startAt : "0")));
+    }
+
+    public URL getServerUrl() {
+        return server.url("/").url();
+    }
+
+    /**
+     * Возвращает адрес доски в формате ссылки на доску jira
+     */
+    public String getBoardAddress(long boardId) {
+        return String.format("http://%s:%d/secure/RapidBoard.jspa?rapidView=%d",
+                server.getHostName(), server.getPort(), boardId);
+    }
+
+    public URL getBoardUrl(long boardId) {
+        try {
+            return new URL(getBoardAddress(boardId));
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Заменяет ответ на запросы к адресу
+     *
+     * @param path    адрес без параметров запроса, например /rest/agile/1.0/board/1/issue
+     * @param handler ответ на запрос
+     */
+    public void setHandler(String path, Function<RecordedRequest, MockResponse> handler) {
+        handlers.put(path, handler);
+    }
+
+    /**
+     * Возвращает число запросов к адресу
+     *
+     * @param path адрес без параметров запроса
+     */
+    public int getRequestCount(String path) {
+        AtomicInteger count = requestCounts.get(path);
+        return count != null ? count.get() : 0;
+    }
+
+    public RecordedRequest takeRequest() throws InterruptedException {
+        return server.takeRequest();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    private static MockResponse defaultResponse(String path, RecordedRequest request) {
+        if (SESSION_PATH.equals(path)) {
+            if ("DELETE".equals(request.getMethod())) {
+                return new MockResponse().setResponseCode(204);
+            }
+            return json(String.format("{\"session\": {\"name\": \"JSESSIONID\", \"value\": \"%s\"}}", SESSION_ID))
+                    .setHeader(HttpHeaders.SET_COOKIE, "JSESSIONID=" + SESSION_ID);
+        }
+
+        Matcher matcher = BOARD_PATH_PATTERN.matcher(path);
+        if (!matcher.matches()) {
+            return new MockResponse().setResponseCode(404);
+        }
+        String boardId = matcher.group(1);
+        if (matcher.group(2) == null) {
+            return json(BOARD_JSON_STUB.replaceFirst("\"id\": 1", "\"id\": " + boardId));
+        } else if ("/configuration".equals(matcher.group(2))) {
+            return json(BOARD_CONFIGURATION_JSON_STUB.replaceFirst("\"id\": \"1\"", "\"id\": \"" + boardId + "\""));
+        }
+        return issuesPage(request);
+    }
+
+    private static String readResource(String name) {
+        try (InputStream inputStream = JiraServerStub.class.getClassLoader().getResourceAsStream(name)) {
+            return new String(Objects.requireNonNull(inputStream).readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
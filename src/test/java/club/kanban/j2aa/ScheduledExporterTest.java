@@ -0,0 +1,182 @@
+package club.kanban.j2aa;
+
+import club.kanban.j2aa.j2aaconverter.J2aaConverter;
+import club.kanban.j2aa.j2aaconverter.fileadapters.FileAdapterFactory;
+import club.kanban.j2aa.jiraclient.JiraClient;
+import club.kanban.j2aa.jiraclient.JiraException;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduledExporterTest {
+    private static final long BOARD_ID = 1;
+    private static final Duration INTERVAL = Duration.ofMinutes(10);
+    private static final FileAdapterFactory FILE_ADAPTER_FACTORY = TestProfiles.newFileAdapterFactory();
+
+    @TempDir
+    Path tempDir;
+    private JiraServerStub jiraServer;
+    private RecordingScheduler scheduler;
+    private ManualExecutor executor;
+    private ScheduledExporter scheduledExporter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jiraServer = new JiraServerStub();
+        scheduler = new RecordingScheduler();
+        executor = new ManualExecutor();
+        scheduledExporter = new ScheduledExporter("username", "password", FILE_ADAPTER_FACTORY, INTERVAL,
+                scheduler, executor);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        scheduledExporter.close();
+        jiraServer.close();
+    }
+
+    @Test
+    void initialDelays() {
+        List<ConnectionProfile> profiles = new ArrayList<>();
+        for (long boardId = 1; boardId <= 4; boardId++) {
+            profiles.add(newProfile(boardId, tempDir.resolve("board-" + boardId + ".csv")));
+        }
+        scheduledExporter.start(profiles);
+
+        // Первые выгрузки равномерно распределены по интервалу
+        long intervalMillis = INTERVAL.toMillis();
+        assertEquals(List.of(0L, intervalMillis / 4, intervalMillis / 2, intervalMillis * 3 / 4),
+                scheduler.initialDelays);
+        assertTrue(scheduler.periods.stream().allMatch(period -> period == intervalMillis));
+    }
+
+    @Test
+    void skipWhileRunning() throws IOException {
+        Path outputFile = tempDir.resolve("board.csv");
+        scheduledExporter.start(List.of(newProfile(BOARD_ID, outputFile)));
+        Runnable boardExport = scheduler.commands.get(0);
+
+        // Пока выгрузка доски не завершена, очередные запуски пропускаются
+        boardExport.run();
+        boardExport.run();
+        assertEquals(1, executor.tasks.size());
+
+        executor.runTasks();
+        assertTrue(Files.size(outputFile) > 0);
+
+        boardExport.run();
+        assertEquals(1, executor.tasks.size());
+    }
+
+    @Test
+    void failedExportKeepsPreviousFile() throws IOException {
+        Path outputFile = Files.writeString(tempDir.resolve("board.csv"), "previous");
+        jiraServer.setHandler(JiraServerStub.BOARD_PATH + BOARD_ID + "/issue",
+                request -> new MockResponse().setResponseCode(400));
+
+        ConnectionProfile profile = newProfile(BOARD_ID, outputFile);
+        URL boardUrl = jiraServer.getBoardUrl(BOARD_ID);
+        try (JiraClient jiraClient = JiraClient.builder(boardUrl, "username", "password").build()) {
+            J2aaConverter converter = BatchExporter.newConverter(jiraClient, boardUrl, profile, FILE_ADAPTER_FACTORY);
+            assertThrows(JiraException.class, () -> ScheduledExporter.exportAtomically(converter, profile));
+        }
+
+        assertEquals("previous", Files.readString(outputFile));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    private ConnectionProfile newProfile(long boardId, Path outputFile) {
+        ConnectionProfile profile = TestProfiles.newProfile(Map.of());
+        profile.setBoardAddress(jiraServer.getBoardAddress(boardId));
+        profile.setOutputFileName(outputFile.toString());
+        return profile;
+    }
+
+    /**
+     * Планировщик, который только запоминает периодические задачи
+     */
+    private static class RecordingScheduler extends ScheduledThreadPoolExecutor {
+        final List<Runnable> commands = new ArrayList<>();
+        final List<Long> initialDelays = new ArrayList<>();
+        final List<Long> periods = new ArrayList<>();
+
+        RecordingScheduler() {
+            super(1);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period,
+                                                      TimeUnit unit) {
+            commands.add(command);
+            initialDelays.add(unit.toMillis(initialDelay));
+            periods.add(unit.toMillis(period));
+            return null;
+        }
+    }
+
+    /**
+     * Исполнитель, который выполняет задачи в потоке теста по вызову runTasks()
+     */
+    private static class ManualExecutor extends AbstractExecutorService {
+        final List<Runnable> tasks = new ArrayList<>();
+        private boolean shutdown;
+
+        void runTasks() {
+            List<Runnable> queued = new ArrayList<>(tasks);
+            tasks.clear();
+            queued.forEach(Runnable::run);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (shutdown) {
+                throw new RejectedExecutionException();
+            }
+            tasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            List<Runnable> queued = new ArrayList<>(tasks);
+            tasks.clear();
+            return queued;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
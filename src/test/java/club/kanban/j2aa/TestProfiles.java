@@ -0,0 +1,44 @@
+package club.kanban.j2aa;
+
+import club.kanban.j2aa.j2aaconverter.fileadapters.FileAdapterFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Профили подключения для тестов. Глобальные переменные профиля получают значения по умолчанию
+ * (как при запуске без файла настроек), кроме заданных явно
+ */
+public final class TestProfiles {
+    public static final String JIRA_FIELDS = "issuetype,labels,epic,priority,components,project,assignee,reporter,"
+            + "projectkey,fixVersions,summary";
+
+    private TestProfiles() {
+    }
+
+    /**
+     * Создает профиль подключения
+     *
+     * @param properties значения глобальных переменных, например "batch-concurrency" -> 2
+     */
+    public static ConnectionProfile newProfile(Map<String, Object> properties) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("jira-fields", JIRA_FIELDS);
+        values.putAll(properties);
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", values));
+            context.register(ConnectionProfile.class);
+            context.refresh();
+            return context.getBean(ConnectionProfile.class);
+        }
+    }
+
+    public static FileAdapterFactory newFileAdapterFactory() {
+        try (AnnotationConfigApplicationContext context =
+                     new AnnotationConfigApplicationContext("club.kanban.j2aa.j2aaconverter.fileadapters")) {
+            return context.getBean(FileAdapterFactory.class);
+        }
+    }
+}
@@ -87,4 +87,62 @@ class BlockersCalendarTest {
             assertEquals(2, blockersCalendar.getValue(START_DATE.plusDays(i)));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void importFlagChanges() {
+        long[] flagChangesSet1 = {
+                ConvertedIssue.packFlagChange(START_DATE.plusDays(5)
+                        .atStartOfDay().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                        ConvertedIssue.FLAG_CHANGE_SET),
+                ConvertedIssue.packFlagChange(END_DATE
+                        .atStartOfDay().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                        ConvertedIssue.FLAG_CHANGE_UNSET)
+        };
+        long[] flagChangesSet2 = {
+                ConvertedIssue.packFlagChange(END_DATE.minusDays(2)
+                        .atStartOfDay().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                        ConvertedIssue.FLAG_CHANGE_SET)
+        };
+        assertEquals(ConvertedIssue.FLAG_CHANGE_UNSET, ConvertedIssue.getFlagChangeKind(flagChangesSet1[1]));
+        assertDoesNotThrow(() -> blockersCalendar.importFlagChanges(flagChangesSet1));
+        assertDoesNotThrow(() -> blockersCalendar.importFlagChanges(flagChangesSet2));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, blockersCalendar.getValue(START_DATE.plusDays(i)));
+        }
+        for (int i = 5; i < 7; i++) {
+            assertEquals(1, blockersCalendar.getValue(START_DATE.plusDays(i)));
+        }
+        for (int i = 7; i < 10; i++) {
+            assertEquals(2, blockersCalendar.getValue(START_DATE.plusDays(i)));
+        }
+    }
+
+    @Test
+    void incrementAfterGetValue() {
+        blockersCalendar.incrementRange(START_DATE, END_DATE);
+        assertEquals(1, blockersCalendar.getValue(END_DATE));
+        blockersCalendar.incrementRange(END_DATE, END_DATE);
+        assertEquals(2, blockersCalendar.getValue(END_DATE));
+        assertEquals(1, blockersCalendar.getValue(END_DATE.toEpochDay() - 1));
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> blockersCalendar.getValue(END_DATE.toEpochDay() + 1));
+    }
+
+    @Test
+    void merge() {
+        BlockersCalendar other = BlockersCalendar.newInstance(START_DATE, END_DATE);
+        blockersCalendar.incrementRange(START_DATE.plusDays(2), START_DATE.plusDays(4));
+        other.incrementRange(START_DATE.plusDays(4), END_DATE);
+        assertEquals(0, blockersCalendar.getValue(END_DATE));
+
+        assertSame(blockersCalendar, blockersCalendar.merge(other));
+        int[] expected = {0, 0, 1, 1, 2, 1, 1, 1, 1, 1};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], blockersCalendar.getValue(START_DATE.plusDays(i)));
+            assertEquals(i < 4 ? 0 : 1, other.getValue(START_DATE.plusDays(i)));
+        }
+
+        assertThrows(IllegalArgumentException.class, () ->
+                blockersCalendar.merge(BlockersCalendar.newInstance(START_DATE, END_DATE.plusDays(1))));
+    }
+}
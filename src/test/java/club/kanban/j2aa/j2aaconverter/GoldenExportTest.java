@@ -0,0 +1,198 @@
+package club.kanban.j2aa.j2aaconverter;
+
+import club.kanban.j2aa.JiraServerStub;
+import club.kanban.j2aa.TestProfiles;
+import club.kanban.j2aa.jiraclient.JiraClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнивает выгрузку доски в CSV и JSON с эталонными файлами golden/board.csv и golden/board.json.
+ * Эталоны получены исходной (до оптимизаций) версией j2aa на тех же данных: задачи доски строятся
+ * по образцу из stubs/issueset.json функцией newIssues(). Число дней блокировки считается до текущей даты,
+ * поэтому выгрузка выполняется с часами, установленными на дату получения эталонов. Эталоны получены
+ * в часовом поясе UTC, который устанавливается по умолчанию на время теста
+ */
+class GoldenExportTest {
+    private static final long BOARD_ID = 1;
+    private static final int ISSUES_COUNT = 35;
+    private static final int DEFAULT_MAX_RESULTS = 50;
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-17T12:00:00Z"), ZoneOffset.UTC);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+    private JiraServerStub jiraServer;
+    private JiraClient jiraClient;
+    private URL boardUrl;
+    private ArrayNode issues;
+    private TimeZone defaultTimeZone;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        defaultTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone(ZoneOffset.UTC));
+        ObjectNode template = (ObjectNode) objectMapper.readTree(JiraServerStub.BOARD_ISSUES_JSON_STUB)
+                .get("issues").get(0);
+        issues = newIssues(template, ISSUES_COUNT);
+        jiraServer = new JiraServerStub();
+        jiraServer.setHandler(JiraServerStub.BOARD_PATH + BOARD_ID + "/issue", this::getPage);
+        boardUrl = jiraServer.getBoardUrl(BOARD_ID);
+        jiraClient = JiraClient.builder(boardUrl, "username", "password").build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        jiraClient.close();
+        jiraServer.close();
+        TimeZone.setDefault(defaultTimeZone);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"csv, 1000", "json, 1000", "csv, 0", "json, 0"})
+    void sameAsGolden(String format, int maxIssuesInMemory) throws IOException {
+        // maxIssuesInMemory = 0 - потоковая выгрузка
+        J2aaConverter converter = J2aaConverter.builder(jiraClient, boardUrl)
+                .withJiraFields(Arrays.asList(TestProfiles.JIRA_FIELDS.split(",")))
+                .withMaxIssuesInMemory(maxIssuesInMemory)
+                .withFileAdapterFactory(TestProfiles.newFileAdapterFactory())
+                .withClock(CLOCK)
+                .build();
+        Path outputFile = tempDir.resolve("board." + format);
+        assertEquals(ISSUES_COUNT, converter.fetchAndExport(outputFile.toString()));
+
+        assertArrayEquals(readResource("golden/board." + format), Files.readAllBytes(outputFile));
+    }
+
+    /**
+     * Создает задачи доски по образцу: у задач различаются название, метки, переходы по статусам
+     * и блокировки (в том числе текущие, число дней которых зависит от текущей даты)
+     */
+    static ArrayNode newIssues(ObjectNode template, int count) {
+        String[] statusIds = {"10001", "10003", "10005", "10007"};
+        String[] statusNames = {"Backlog", "To Do", "In Progress", "Done"};
+
+        ArrayNode issues = objectMapper.createArrayNode();
+        for (int i = 0; i < count; i++) {
+            ObjectNode issue = template.deepCopy();
+            String id = String.valueOf(10742 + i);
+            issue.put("id", id);
+            issue.put("key", "FILTA-" + (43 + i));
+            issue.put("self", "https://brainbubble.atlassian.net/rest/api/latest/issue/" + id);
+
+            ObjectNode fields = (ObjectNode) issue.get("fields");
+            switch (i % 4) {
+                case 1:
+                    fields.put("summary", String.format("Details, \"quoted\" #%d", i));
+                    break;
+                case 2:
+                    fields.put("summary", "Детали задачи " + i);
+                    break;
+                case 3:
+                    fields.put("summary", "Line\nbreak " + i);
+                    break;
+                default:
+                    break;
+            }
+            if (i % 3 == 1) {
+                fields.putArray("labels").add("backend").add("urgent");
+            }
+
+            ArrayNode histories = objectMapper.createArrayNode();
+            int day = 1 + i % 20;
+            // Переходы Backlog -> To Do -> In Progress -> Done, число переходов зависит от задачи
+            for (int status = 1; status <= i % 4; status++) {
+                histories.add(newHistory(String.format("2022-10-%02dT10:%02d:00.000+0300", day + status, i),
+                        "status", "jira", statusIds[status - 1], statusNames[status - 1],
+                        statusIds[status], statusNames[status]));
+            }
+            switch (i % 3) {
+                case 0:
+                    // Исходные изменения флага: снятие раньше установки, задача остается заблокированной
+                    for (int h = 0; h < 2; h++) {
+                        histories.add(template.get("changelog").get("histories").get(h).deepCopy());
+                    }
+                    break;
+                case 2:
+                    histories.add(newHistory(String.format("2022-10-%02dT12:00:00.000+0300", day),
+                            "Flagged", "custom", "", "", "[10000]", "Impediment"));
+                    histories.add(newHistory(String.format("2022-10-%02dT18:00:00.000+0300", day + 3),
+                            "Flagged", "custom", "[10000]", "Impediment", "", ""));
+                    break;
+                default:
+                    break;
+            }
+            ObjectNode changelog = issue.putObject("changelog");
+            changelog.put("startAt", 0);
+            changelog.put("maxResults", histories.size());
+            changelog.put("total", histories.size());
+            changelog.set("histories", histories);
+            issues.add(issue);
+        }
+        return issues;
+    }
+
+    private static ObjectNode newHistory(String created, String field, String fieldType,
+                                         String from, String fromString, String to, String toString) {
+        ObjectNode history = objectMapper.createObjectNode();
+        history.put("id", "1");
+        history.putObject("author");
+        history.put("created", created);
+        ObjectNode item = history.putArray("items").addObject();
+        item.put("field", field);
+        item.put("fieldtype", fieldType);
+        item.put("from", from);
+        item.put("fromString", fromString);
+        item.put("to", to);
+        item.put("toString", toString);
+        return history;
+    }
+
+    /**
+     * Возвращает страницу задач с позиции startAt размером не более maxResults
+     */
+    private MockResponse getPage(RecordedRequest request) {
+        String startAt = Objects.requireNonNull(request.getRequestUrl()).queryParameter("startAt");
+        String maxResults = request.getRequestUrl().queryParameter("maxResults");
+        int from = Math.min(startAt != null ? Integer.parseInt(startAt) : 0, issues.size());
+        int size = maxResults != null ? Integer.parseInt(maxResults) : DEFAULT_MAX_RESULTS;
+
+        ObjectNode page = objectMapper.createObjectNode();
+        page.put("startAt", from);
+        page.put("maxResults", size);
+        page.put("total", issues.size());
+        ArrayNode pageIssues = page.putArray("issues");
+        for (int i = from; i < Math.min(from + size, issues.size()); i++) {
+            pageIssues.add(issues.get(i));
+        }
+        return JiraServerStub.json(page.toString());
+    }
+
+    private static byte[] readResource(String name) throws IOException {
+        try (InputStream inputStream = GoldenExportTest.class.getClassLoader().getResourceAsStream(name)) {
+            return Objects.requireNonNull(inputStream, name).readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package club.kanban.j2aa.j2aaconverter;
+
+import club.kanban.j2aa.JiraServerStub;
+import club.kanban.j2aa.TestProfiles;
+import club.kanban.j2aa.j2aaconverter.fileadapters.FileAdapterFactory;
+import club.kanban.j2aa.jiraclient.JiraClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Инкрементальная синхронизация задач доски с локальным кэшем (J2aaConverter.syncIssues)
+ */
+class IssueCacheTest {
+    private static final long BOARD_ID = 1;
+    private static final String ISSUES_PATH = JiraServerStub.BOARD_PATH + BOARD_ID + "/issue";
+    private static final String UPDATED_JQL = "updated >= ";
+    private static final Pattern ID_JQL_PATTERN = Pattern.compile("id in \\(([\\d,]+)\\)");
+    private static final int SYNC_ID_CHUNK_SIZE = 100;
+    private static final List<String> JIRA_FIELDS = Arrays.asList(TestProfiles.JIRA_FIELDS.split(","));
+    private static final FileAdapterFactory FILE_ADAPTER_FACTORY = TestProfiles.newFileAdapterFactory();
+
+    @TempDir
+    Path tempDir;
+    private JiraServerStub jiraServer;
+    private JiraClient jiraClient;
+    private URL boardUrl;
+    private BoardIssues boardIssues;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jiraServer = new JiraServerStub();
+        boardIssues = new BoardIssues();
+        jiraServer.setHandler(ISSUES_PATH, boardIssues::getPage);
+        boardUrl = jiraServer.getBoardUrl(BOARD_ID);
+        jiraClient = JiraClient.builder(boardUrl, "username", "password").build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        jiraClient.close();
+        jiraServer.close();
+    }
+
+    @Test
+    void coldCache() {
+        boardIssues.add(1, 5);
+
+        assertEquals(List.of("1:1", "2:1", "3:1", "4:1", "5:1"), sync(JIRA_FIELDS));
+        // Все задачи запрошены с историей изменений без дополнительных условий
+        assertEquals(Collections.singletonList(null), boardIssues.getChangelogQueries());
+        assertTrue(Files.exists(tempDir.resolve("board-" + BOARD_ID + ".json")));
+    }
+
+    @Test
+    void updatedIssuesRefetched() {
+        boardIssues.add(1, 5);
+        sync(JIRA_FIELDS);
+
+        // Задача 2 найдена запросом измененных задач, а изменение задачи 4 в него не попало
+        boardIssues.clearRequests();
+        boardIssues.update(2, true);
+        boardIssues.update(4, false);
+        assertEquals(List.of("1:1", "2:2", "3:1", "4:2", "5:1"), sync(JIRA_FIELDS));
+
+        List<String> queries = boardIssues.getChangelogQueries();
+        assertEquals(2, queries.size());
+        assertTrue(queries.get(0).startsWith(UPDATED_JQL), queries.get(0));
+        assertEquals("id in (4)", queries.get(1));
+        assertEquals(Set.of(2L, 4L), boardIssues.getChangelogIssueIds());
+    }
+
+    @Test
+    void deletedIssuesDropped() {
+        boardIssues.add(1, 5);
+        sync(JIRA_FIELDS);
+
+        boardIssues.remove(3);
+        boardIssues.clearRequests();
+        assertEquals(List.of("1:1", "2:1", "4:1", "5:1"), sync(JIRA_FIELDS));
+        assertEquals(Set.of(), boardIssues.getChangelogIssueIds());
+
+        // Удаленная задача не возвращается и из сохраненного кэша
+        boardIssues.clearRequests();
+        assertEquals(List.of("1:1", "2:1", "4:1", "5:1"), sync(JIRA_FIELDS));
+    }
+
+    @Test
+    void missingIssuesFetchedInChunks() {
+        boardIssues.add(1, 1);
+        sync(JIRA_FIELDS);
+
+        int missingCount = 2 * SYNC_ID_CHUNK_SIZE + SYNC_ID_CHUNK_SIZE / 2;
+        boardIssues.add(2, missingCount);
+        boardIssues.clearRequests();
+        assertEquals(missingCount + 1, sync(JIRA_FIELDS).size());
+
+        List<Integer> chunkSizes = new ArrayList<>();
+        Set<Long> fetchedIds = new HashSet<>();
+        for (String query : boardIssues.getChangelogQueries()) {
+            Matcher matcher = ID_JQL_PATTERN.matcher(query);
+            if (matcher.find()) {
+                List<Long> ids = Arrays.stream(matcher.group(1).split(","))
+                        .map(Long::valueOf).collect(Collectors.toList());
+                chunkSizes.add(ids.size());
+                fetchedIds.addAll(ids);
+            }
+        }
+        assertEquals(List.of(SYNC_ID_CHUNK_SIZE, SYNC_ID_CHUNK_SIZE, SYNC_ID_CHUNK_SIZE / 2), chunkSizes);
+        assertEquals(LongStream.rangeClosed(2, missingCount + 1).boxed().collect(Collectors.toSet()), fetchedIds);
+    }
+
+    @Test
+    void signatureChangeDiscardsCache() {
+        boardIssues.add(1, 3);
+        sync(JIRA_FIELDS);
+
+        // Снимок, полученный с другим набором полей, не используется
+        boardIssues.clearRequests();
+        List<String> otherFields = new ArrayList<>(JIRA_FIELDS);
+        otherFields.remove("labels");
+        assertEquals(List.of("1:1", "2:1", "3:1"), sync(otherFields));
+        assertEquals(Collections.singletonList(null), boardIssues.getChangelogQueries());
+        assertEquals(Set.of(1L, 2L, 3L), boardIssues.getChangelogIssueIds());
+    }
+
+    /**
+     * Выполняет синхронизацию и возвращает задачи доски в виде "номер:версия"
+     */
+    private List<String> sync(List<String> jiraFields) {
+        J2aaConverter converter = J2aaConverter.builder(jiraClient, boardUrl)
+                .withJiraFields(jiraFields)
+                .withIssueCache(new IssueCache(tempDir))
+                .withFileAdapterFactory(FILE_ADAPTER_FACTORY)
+                .build();
+        converter.fetchData();
+        return converter.getConvertedIssues().stream()
+                .map(issue -> issue.getKey().substring(BoardIssues.KEY_PREFIX.length()) + ":"
+                        + issue.getName().substring(BoardIssues.SUMMARY_PREFIX.length()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Задачи доски на сервере jira. Задача создается по образцу из stubs/issueset.json, а ее версия
+     * (название и дата обновления) изменяется при update(). Запрос "updated >= ..." возвращает задачи,
+     * отмеченные как недавно измененные, запрос "id in (...)" - задачи с заданными идентификаторами
+     */
+    private static class BoardIssues {
+        static final String KEY_PREFIX = "T-";
+        static final String SUMMARY_PREFIX = "Issue v";
+        private static final int DEFAULT_MAX_RESULTS = 50;
+        private final ObjectMapper objectMapper = new ObjectMapper();
+        private final ObjectNode template;
+        private final Map<Long, Integer> versions = Collections.synchronizedMap(new LinkedHashMap<>());
+        private final Set<Long> recentlyUpdated = ConcurrentHashMap.newKeySet();
+        private final List<RecordedRequest> changelogRequests = Collections.synchronizedList(new ArrayList<>());
+        private final Set<Long> changelogIssueIds = ConcurrentHashMap.newKeySet();
+
+        BoardIssues() throws IOException {
+            template = (ObjectNode) objectMapper.readTree(JiraServerStub.BOARD_ISSUES_JSON_STUB).get("issues").get(0);
+        }
+
+        void add(long fromId, int count) {
+            for (long id = fromId; id < fromId + count; id++) {
+                versions.put(id, 1);
+            }
+        }
+
+        void update(long id, boolean recent) {
+            versions.computeIfPresent(id, (key, version) -> version + 1);
+            if (recent) {
+                recentlyUpdated.add(id);
+            }
+        }
+
+        void remove(long id) {
+            versions.remove(id);
+        }
+
+        void clearRequests() {
+            changelogRequests.clear();
+            changelogIssueIds.clear();
+            recentlyUpdated.clear();
+        }
+
+        /**
+         * Возвращает jql первых страниц запросов задач с историей изменений в порядке выполнения
+         */
+        List<String> getChangelogQueries() {
+            synchronized (changelogRequests) {
+                return changelogRequests.stream()
+                        .filter(request -> request.getRequestUrl().queryParameter("startAt") == null)
+                        .map(request -> request.getRequestUrl().queryParameter("jql"))
+                        .collect(Collectors.toList());
+            }
+        }
+
+        Set<Long> getChangelogIssueIds() {
+            return changelogIssueIds;
+        }
+
+        MockResponse getPage(RecordedRequest request) {
+            String jql = request.getRequestUrl().queryParameter("jql");
+            boolean expandChangelog = "changelog".equals(request.getRequestUrl().queryParameter("expand"));
+            int startAt = intParameter(request, "startAt", 0);
+            int maxResults = intParameter(request, "maxResults", DEFAULT_MAX_RESULTS);
+
+            List<Long> ids;
+            synchronized (versions) {
+                ids = new ArrayList<>(versions.keySet());
+            }
+            if (jql != null && jql.contains(UPDATED_JQL)) {
+                ids.retainAll(recentlyUpdated);
+            } else if (jql != null) {
+                Matcher matcher = ID_JQL_PATTERN.matcher(jql);
+                assertTrue(matcher.find(), jql);
+                ids.retainAll(Arrays.stream(matcher.group(1).split(","))
+                        .map(Long::valueOf).collect(Collectors.toSet()));
+            }
+
+            ObjectNode page = objectMapper.createObjectNode();
+            page.put("startAt", startAt);
+            page.put("maxResults", maxResults);
+            page.put("total", ids.size());
+            ArrayNode issues = page.putArray("issues");
+            for (Long id : ids.subList(Math.min(startAt, ids.size()), Math.min(startAt + maxResults, ids.size()))) {
+                issues.add(newIssue(id, versions.getOrDefault(id, 1)));
+                if (expandChangelog) {
+                    changelogIssueIds.add(id);
+                }
+            }
+            if (expandChangelog) {
+                changelogRequests.add(request);
+            }
+            return JiraServerStub.json(page.toString());
+        }
+
+        private ObjectNode newIssue(long id, int version) {
+            ObjectNode issue = template.deepCopy();
+            issue.put("id", String.valueOf(id));
+            issue.put("key", KEY_PREFIX + id);
+            ObjectNode fields = (ObjectNode) issue.get("fields");
+            fields.put("summary", SUMMARY_PREFIX + version);
+            fields.put("updated", String.format("2022-10-%02dT22:24:55.961+0100", 9 + version));
+            return issue;
+        }
+
+        private static int intParameter(RecordedRequest request, String name, int defaultValue) {
+            String value = request.getRequestUrl().queryParameter(name);
+            return value != null ? Integer.parseInt(value) : defaultValue;
+        }
+    }
+}
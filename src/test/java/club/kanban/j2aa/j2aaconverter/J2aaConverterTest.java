@@ -0,0 +1,121 @@
+package club.kanban.j2aa.j2aaconverter;
+
+import club.kanban.j2aa.JiraServerStub;
+import club.kanban.j2aa.TestProfiles;
+import club.kanban.j2aa.j2aaconverter.fileadapters.FileAdapterFactory;
+import club.kanban.j2aa.jiraclient.JiraClient;
+import club.kanban.j2aa.jiraclient.JiraException;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class J2aaConverterTest {
+    private static final long BOARD_ID = 1;
+    private static final String ISSUES_PATH = JiraServerStub.BOARD_PATH + BOARD_ID + "/issue";
+    private static final String FAILING_START_AT = "20";
+    private static final FileAdapterFactory FILE_ADAPTER_FACTORY = TestProfiles.newFileAdapterFactory();
+
+    @TempDir
+    Path tempDir;
+    private JiraServerStub jiraServer;
+    private JiraClient jiraClient;
+    private URL boardUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jiraServer = new JiraServerStub();
+        boardUrl = jiraServer.getBoardUrl(BOARD_ID);
+        jiraClient = JiraClient.builder(boardUrl, "username", "password").build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        jiraClient.close();
+        jiraServer.close();
+    }
+
+    @Test
+    void streamingExport() throws IOException {
+        J2aaConverter converter = newConverter(J2aaConverter.DEFAULT_MAX_ISSUES_IN_MEMORY);
+        int issuesCount = converter.fetchData();
+        assertTrue(issuesCount > 0);
+
+        for (String extension : new String[]{"csv", "json"}) {
+            Path expected = tempDir.resolve("memory." + extension);
+            converter.exportIssues(expected.toString());
+
+            // Потоковая выгрузка совпадает с выгрузкой из памяти и не накапливает задачи
+            J2aaConverter streamingConverter = newConverter(0);
+            Path actual = tempDir.resolve("stream." + extension);
+            assertEquals(issuesCount, streamingConverter.fetchAndExport(actual.toString()));
+            assertNull(streamingConverter.getConvertedIssues());
+            assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(actual));
+        }
+
+        // Временные файлы удалены
+        try (var files = Files.list(tempDir)) {
+            assertEquals(4, files.count());
+        }
+    }
+
+    @Test
+    void failedExportKeepsPreviousFile() throws IOException {
+        // Ответ обрывается на середине страницы
+        jiraServer.setHandler(ISSUES_PATH, request -> {
+            MockResponse page = JiraServerStub.issuesPage(request);
+            if (!FAILING_START_AT.equals(Objects.requireNonNull(request.getRequestUrl()).queryParameter("startAt")))
+                return page;
+            String body = page.getBody().readUtf8();
+            return page.setBody(body.substring(0, body.length() / 2));
+        });
+
+        for (int maxIssuesInMemory : new int[]{J2aaConverter.DEFAULT_MAX_ISSUES_IN_MEMORY, 0}) {
+            Path outputFile = tempDir.resolve("export-" + maxIssuesInMemory + ".csv");
+            Files.writeString(outputFile, "previous");
+
+            J2aaConverter converter = newConverter(maxIssuesInMemory);
+            assertThrows(RuntimeException.class, () -> converter.fetchAndExport(outputFile.toString()));
+            assertEquals("previous", Files.readString(outputFile));
+        }
+        try (var files = Files.list(tempDir)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    void failedPageFailsExport() {
+        jiraServer.setHandler(ISSUES_PATH, request ->
+                FAILING_START_AT.equals(Objects.requireNonNull(request.getRequestUrl()).queryParameter("startAt"))
+                        ? new MockResponse().setResponseCode(404)
+                        : JiraServerStub.issuesPage(request));
+
+        // Страница с ошибкой не пропускается: выгрузка завершается ошибкой, а не выгружает меньше задач
+        for (int maxIssuesInMemory : new int[]{J2aaConverter.DEFAULT_MAX_ISSUES_IN_MEMORY, 0}) {
+            J2aaConverter converter = newConverter(maxIssuesInMemory);
+            Path outputFile = tempDir.resolve("failed-" + maxIssuesInMemory + ".csv");
+            JiraException exception = assertThrows(JiraException.class,
+                    () -> converter.fetchAndExport(outputFile.toString()));
+            assertTrue(exception.getMessage().contains("404"), exception.getMessage());
+            assertFalse(Files.exists(outputFile));
+        }
+    }
+
+    private J2aaConverter newConverter(int maxIssuesInMemory) {
+        return J2aaConverter.builder(jiraClient, boardUrl)
+                .withJiraFields(Arrays.asList(TestProfiles.JIRA_FIELDS.split(",")))
+                .withMaxIssuesInMemory(maxIssuesInMemory)
+                .withFileAdapterFactory(FILE_ADAPTER_FACTORY)
+                .build();
+    }
+}
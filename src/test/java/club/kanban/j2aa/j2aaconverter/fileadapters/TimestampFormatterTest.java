@@ -0,0 +1,51 @@
+package club.kanban.j2aa.j2aaconverter.fileadapters;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TimestampFormatterTest {
+    private static final long HOUR = 60L * 60 * 1000;
+
+    @Test
+    void formatMatchesSimpleDateFormat() {
+        for (String zone : new String[]{"UTC", "Europe/Moscow", "America/New_York", "Asia/Kolkata"}) {
+            TimeZone timeZone = TimeZone.getTimeZone(zone);
+            TimestampFormatter formatter = new TimestampFormatter(timeZone);
+            SimpleDateFormat dateFormat = new SimpleDateFormat(Utils.DEFAULT_DATETIME_FORMAT);
+            dateFormat.setTimeZone(timeZone);
+
+            long[] times = {0, -1, 1_700_000_000_000L, 253_402_300_800_000L, -62_135_596_800_000L,
+                    -12_219_292_800_000L - HOUR};
+            for (long time : times) {
+                assertEquals(dateFormat.format(new Date(time)), formatter.format(time), zone + " " + time);
+            }
+            // Каждый час двух лет (переходы на летнее время и границы суток), дважды для проверки кэша
+            for (int pass = 0; pass < 2; pass++) {
+                for (long time = 1_577_836_800_000L; time < 1_640_995_200_000L; time += HOUR) {
+                    assertEquals(dateFormat.format(new Date(time)), formatter.format(time), zone + " " + time);
+                }
+            }
+        }
+    }
+
+    @Test
+    void followsDefaultTimeZone() {
+        TimeZone defaultTimeZone = TimeZone.getDefault();
+        try {
+            // 2023-11-14T22:13:20Z: в Москве уже 15 ноября
+            TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+            assertEquals("11/14/2023", Utils.getDateFormatter().format(1_700_000_000_000L));
+            TimeZone.setDefault(TimeZone.getTimeZone("Europe/Moscow"));
+            assertEquals("11/15/2023", Utils.getDateFormatter().format(1_700_000_000_000L));
+            assertSame(Utils.getDateFormatter(), Utils.getDateFormatter());
+        } finally {
+            TimeZone.setDefault(defaultTimeZone);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package club.kanban.j2aa.jiraclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptivePageSizeTest {
+    private static final int MIN_RESULTS = 10;
+    private static final int MAX_RESULTS = 500;
+    private static final long BYTES_PER_ISSUE = 1000;
+    private static final long FAST_NANOS_PER_ISSUE = Duration.ofMillis(1).toNanos();
+
+    private static AdaptivePageSize newPageSize() {
+        return AdaptivePageSize.builder()
+                .withMinResults(MIN_RESULTS)
+                .withMaxResults(MAX_RESULTS)
+                .withInitialResults(50)
+                .withTargetResponseTime(Duration.ofSeconds(3))
+                .withTargetPageBytes(4 * 1024 * 1024)
+                .build();
+    }
+
+    /**
+     * Учитывает полную страницу заданного размера с заданным временем и объемом ответа на одну задачу
+     */
+    private static int receivePage(AdaptivePageSize pageSize, long bytesPerIssue, long nanosPerIssue) {
+        int size = pageSize.nextPageSize();
+        pageSize.onPageReceived(size, size, size, bytesPerIssue * size, nanosPerIssue * size);
+        return pageSize.nextPageSize();
+    }
+
+    @Test
+    void growsOnFastResponses() {
+        AdaptivePageSize pageSize = newPageSize();
+        assertEquals(50, pageSize.nextPageSize());
+
+        // Рост не более чем вдвое за шаг и не выше максимума
+        List<Integer> sizes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            sizes.add(receivePage(pageSize, BYTES_PER_ISSUE, FAST_NANOS_PER_ISSUE));
+        }
+        assertEquals(List.of(100, 200, 400, MAX_RESULTS, MAX_RESULTS), sizes);
+    }
+
+    @Test
+    void shrinksOnSlowResponses() {
+        AdaptivePageSize pageSize = newPageSize();
+        for (int i = 0; i < 4; i++) {
+            receivePage(pageSize, BYTES_PER_ISSUE, FAST_NANOS_PER_ISSUE);
+        }
+        assertEquals(MAX_RESULTS, pageSize.nextPageSize());
+
+        // Ответ на страницу занимает 10 с при целевых 3 с: размер уменьшается, но не ниже минимума
+        int previous = pageSize.nextPageSize();
+        long slowNanosPerIssue = Duration.ofSeconds(10).toNanos() / MAX_RESULTS;
+        int shrunk = receivePage(pageSize, BYTES_PER_ISSUE, slowNanosPerIssue);
+        assertTrue(shrunk < previous && shrunk >= MIN_RESULTS, String.valueOf(shrunk));
+
+        for (int i = 0; i < 5; i++) {
+            receivePage(pageSize, BYTES_PER_ISSUE, Duration.ofSeconds(1).toNanos());
+        }
+        assertEquals(MIN_RESULTS, pageSize.nextPageSize());
+
+        // После восстановления времени ответа (оценка сглаживается) размер снова растет до максимума
+        int size = pageSize.nextPageSize();
+        for (int i = 0; i < 20; i++) {
+            int next = receivePage(pageSize, BYTES_PER_ISSUE, FAST_NANOS_PER_ISSUE);
+            assertTrue(next >= size && next <= 2 * size, next + " after " + size);
+            size = next;
+        }
+        assertEquals(MAX_RESULTS, size);
+    }
+
+    @Test
+    void shrinksOnLargeResponses() {
+        AdaptivePageSize pageSize = newPageSize();
+        // 400 КБ на задачу: в целевой объем 4 МБ укладывается 10 задач
+        assertEquals(10, receivePage(pageSize, 400 * 1024, FAST_NANOS_PER_ISSUE));
+        assertEquals(MIN_RESULTS, receivePage(pageSize, 4 * 1024 * 1024, FAST_NANOS_PER_ISSUE));
+    }
+
+    @Test
+    void shrinksOnFailures() {
+        AdaptivePageSize pageSize = newPageSize();
+        for (int i = 0; i < 3; i++) {
+            receivePage(pageSize, BYTES_PER_ISSUE, FAST_NANOS_PER_ISSUE);
+        }
+        assertEquals(400, pageSize.nextPageSize());
+
+        List<Integer> sizes = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            pageSize.onPageFailed();
+            sizes.add(pageSize.nextPageSize());
+        }
+        assertEquals(List.of(200, 100, 50, 25, 12, MIN_RESULTS, MIN_RESULTS), sizes);
+    }
+
+    @Test
+    void respectsServerCap() {
+        AdaptivePageSize pageSize = newPageSize();
+        // Сервер вернул не более 30 задач при запрошенных 50
+        pageSize.onPageReceived(50, 30, 30, 30 * BYTES_PER_ISSUE, 30 * FAST_NANOS_PER_ISSUE);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(30, receivePage(pageSize, BYTES_PER_ISSUE, FAST_NANOS_PER_ISSUE));
+        }
+    }
+
+    @Test
+    void fixedSize() {
+        AdaptivePageSize pageSize = AdaptivePageSize.fixed(100);
+        assertEquals(100, receivePage(pageSize, BYTES_PER_ISSUE, Duration.ofSeconds(1).toNanos()));
+        pageSize.onPageFailed();
+        assertEquals(100, pageSize.nextPageSize());
+    }
+
+    @Test
+    void initialSizeWithinBounds() {
+        assertEquals(MAX_RESULTS, AdaptivePageSize.builder()
+                .withMinResults(MIN_RESULTS).withMaxResults(MAX_RESULTS).withInitialResults(1000).build()
+                .nextPageSize());
+        assertEquals(MIN_RESULTS, AdaptivePageSize.builder()
+                .withMinResults(MIN_RESULTS).withMaxResults(MAX_RESULTS).withInitialResults(1).build()
+                .nextPageSize());
+    }
+}
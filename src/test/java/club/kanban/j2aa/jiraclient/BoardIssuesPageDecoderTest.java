@@ -0,0 +1,86 @@
+package club.kanban.j2aa.jiraclient;
+
+import club.kanban.j2aa.JiraServerStub;
+import club.kanban.j2aa.jiraclient.dto.BoardIssuesPage;
+import club.kanban.j2aa.jiraclient.dto.issue.Issue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardIssuesPageDecoderTest {
+    private static final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final BoardIssuesPageDecoder decoder = new BoardIssuesPageDecoder(objectMapper);
+
+    @Test
+    void chunkedInput() throws IOException {
+        BoardIssuesPage expected = objectMapper.readValue(JiraServerStub.BOARD_ISSUES_JSON_STUB, BoardIssuesPage.class);
+        byte[] body = JiraServerStub.BOARD_ISSUES_JSON_STUB.getBytes(StandardCharsets.UTF_8);
+
+        // Границы частей приходятся в том числе на середину многобайтных символов UTF-8
+        for (int chunkSize : new int[]{1, 7, 4096, body.length}) {
+            AtomicReference<BoardIssuesPage> pageHeader = new AtomicReference<>();
+            List<Issue> issues = decoder.decode(split(body, chunkSize), pageHeader::set).collectList().block();
+
+            assertEquals(expected.getIssues(), issues, "chunk size " + chunkSize);
+            assertEquals(expected.getMaxResults(), pageHeader.get().getMaxResults());
+            assertEquals(expected.getTotal(), pageHeader.get().getTotal());
+            assertTrue(pageHeader.get().getIssues().isEmpty());
+        }
+    }
+
+    @Test
+    void headerAfterIssues() {
+        // Поля заголовка после массива issues и поле issues внутри задачи
+        String json = "{\"issues\": [{\"id\": \"1\", \"key\": \"A-1\", \"fields\": {\"issues\": [{\"total\": 99}]}},"
+                + " {\"id\": \"2\", \"key\": \"A-2\"}], \"startAt\": 5, \"maxResults\": 2, \"total\": 7}";
+        AtomicReference<BoardIssuesPage> pageHeader = new AtomicReference<>();
+        List<Issue> issues = decoder.decode(split(json.getBytes(StandardCharsets.UTF_8), 3), pageHeader::set)
+                .collectList().block();
+
+        assertEquals(List.of("A-1", "A-2"), issues.stream().map(Issue::getKey).collect(Collectors.toList()));
+        assertEquals(5, pageHeader.get().getStartAt());
+        assertEquals(2, pageHeader.get().getMaxResults());
+        assertEquals(7, pageHeader.get().getTotal());
+    }
+
+    @Test
+    void notAnObject() {
+        AtomicReference<BoardIssuesPage> pageHeader = new AtomicReference<>();
+        assertEquals(List.of(), decoder.decode(split("[]".getBytes(StandardCharsets.UTF_8), 1), pageHeader::set)
+                .collectList().block());
+        assertNull(pageHeader.get());
+    }
+
+    @Test
+    void malformedInput() {
+        byte[] body = "{\"total\": 1, \"issues\": [{\"id\": \"1\",}]}".getBytes(StandardCharsets.UTF_8);
+        assertThrows(DecodingException.class, () -> decoder.decode(split(body, 4), null).blockLast());
+
+        // Тело ответа оборвано
+        byte[] truncated = Arrays.copyOf(body, 20);
+        assertThrows(DecodingException.class, () -> decoder.decode(split(truncated, 4), null).blockLast());
+    }
+
+    private static Flux<DataBuffer> split(byte[] body, int chunkSize) {
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int from = 0; from < body.length; from += chunkSize) {
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(
+                    Arrays.copyOfRange(body, from, Math.min(from + chunkSize, body.length))));
+        }
+        return Flux.fromIterable(buffers);
+    }
+}
@@ -11,19 +11,28 @@ import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.net.*;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Properties;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -32,6 +41,19 @@ class JiraClientTest {
     private static final String PASSWORD = "password";
     private static final String SESSION_ID = UUID.randomUUID().toString();
     private static final long BOARD_ID = 1;
+    private static final long THROTTLED_BOARD_ID = 2;
+    private static final String ACCESS_TOKEN = UUID.randomUUID().toString();
+    private static final AtomicInteger throttledRequests = new AtomicInteger();
+    private static final AtomicInteger loginRequests = new AtomicInteger();
+    private static final AtomicInteger logoutRequests = new AtomicInteger();
+    private static final String BOARD_CONFIG_ETAG = "\"config-v1\"";
+    private static final AtomicInteger boardConfigRequests = new AtomicInteger();
+    private static final AtomicInteger notModifiedResponses = new AtomicInteger();
+    // Ответы с ошибкой на запрос страницы задач FAILING_PAGE_START_AT: код ответа и число таких ответов
+    private static final int FAILING_PAGE_START_AT = 20;
+    private static final AtomicInteger failingPageStatus = new AtomicInteger();
+    private static final AtomicInteger failingPageResponses = new AtomicInteger();
+    private static final AtomicInteger failingPageRequests = new AtomicInteger();
 
     private static MockWebServer server;
     private JiraClient jiraClient;
@@ -63,13 +85,34 @@ class JiraClientTest {
                     URI uri = new URI(request.getPath());
                     switch (Objects.requireNonNull(uri.getPath())) {
                         case "/rest/agile/1.0/board/" + BOARD_ID:
+                            String cookie = Objects.toString(request.getHeader(HttpHeaders.COOKIE), "");
+                            if (!cookie.contains(SESSION_ID)
+                                    && !("Bearer " + ACCESS_TOKEN).equals(request.getHeader(HttpHeaders.AUTHORIZATION)))
+                                return new MockResponse().setResponseCode(401);
+                            return new MockResponse().setResponseCode(200).setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON).setBody(BOARD_JSON_STUB);
+                        case "/rest/agile/1.0/board/" + THROTTLED_BOARD_ID:
+                            // Первый запрос отклоняется с кодом 429
+                            if (throttledRequests.getAndIncrement() == 0)
+                                return new MockResponse().setResponseCode(429).setHeader(HttpHeaders.RETRY_AFTER, "1");
                             return new MockResponse().setResponseCode(200).setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON).setBody(BOARD_JSON_STUB);
                         case "/rest/agile/1.0/board/" + BOARD_ID + "/configuration":
-                            return new MockResponse().setResponseCode(200).setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON).setBody(BOARD_CONFIGURATION_JSON_STUB);
+                            boardConfigRequests.incrementAndGet();
+                            if (BOARD_CONFIG_ETAG.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+                                notModifiedResponses.incrementAndGet();
+                                return new MockResponse().setResponseCode(304).setHeader(HttpHeaders.ETAG, BOARD_CONFIG_ETAG);
+                            }
+                            return new MockResponse().setResponseCode(200).setHeader(HttpHeaders.ETAG, BOARD_CONFIG_ETAG).setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON).setBody(BOARD_CONFIGURATION_JSON_STUB);
                         case "/rest/agile/1.0/board/" + BOARD_ID + "/issue":
+                            if (String.valueOf(FAILING_PAGE_START_AT).equals(
+                                    Objects.requireNonNull(request.getRequestUrl()).queryParameter("startAt"))) {
+                                failingPageRequests.incrementAndGet();
+                                if (failingPageResponses.getAndDecrement() > 0)
+                                    return new MockResponse().setResponseCode(failingPageStatus.get());
+                            }
                             return new MockResponse().setResponseCode(200).setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON).setBody(BOARD_ISSUES_JSON_STUB);
                         case "/rest/auth/1/session":
                             if (Objects.equals(request.getMethod(), "POST")) {
+                                loginRequests.incrementAndGet();
                                 try {
                                     UserCredentials userCredentials = new ObjectMapper().readValue(request.getBody().inputStream(), UserCredentials.class);
                                     if (!userCredentials.getUsername().equalsIgnoreCase(USERNAME) || !userCredentials.getPassword().equals(PASSWORD))
@@ -81,8 +124,10 @@ class JiraClientTest {
                                         .setResponseCode(200)
                                         .setHeader(HttpHeaders.SET_COOKIE, new HttpCookie("JSESSIONID", SESSION_ID))
                                         .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON).setBody(String.format("{ \"session\": {\"name\": \"JSESSIONID\", \"value\": \"%s\"}}", SESSION_ID));
-                            } else if (request.getMethod().equals("DELETE"))
+                            } else if (request.getMethod().equals("DELETE")) {
+                                logoutRequests.incrementAndGet();
                                 return new MockResponse().setResponseCode(204);
+                            }
                     }
                 } catch (URISyntaxException e) {
                     e.printStackTrace();
@@ -146,12 +191,123 @@ class JiraClientTest {
         assertEquals(BOARD_ID, board.getId());
     }
 
+    @Test
+    void retryTest() {
+        throttledRequests.set(0);
+        long start = System.nanoTime();
+        assertTrue(jiraClient.getBoard(THROTTLED_BOARD_ID).isPresent());
+        assertEquals(2, throttledRequests.get());
+        // Повтор выполняется не раньше, чем указано в Retry-After
+        assertTrue(System.nanoTime() - start >= 1_000_000_000L);
+    }
+
+    @Test
+    void sessionReuseTest(@TempDir Path tempDir) throws IOException {
+        Path sessionStore = tempDir.resolve("sessions");
+        Properties sessions = new Properties();
+        sessions.setProperty(USERNAME + "@" + jiraUrl, "expired-session");
+        try (OutputStream out = Files.newOutputStream(sessionStore)) {
+            sessions.store(out, null);
+        }
+
+        loginRequests.set(0);
+        logoutRequests.set(0);
+        // Сохраненная сессия используется без входа, а после ответа 401 выполняется повторный вход
+        try (JiraClient client = JiraClient.builder(jiraUrl, USERNAME, PASSWORD)
+                .withSessionStore(sessionStore).build()) {
+            assertEquals(0, loginRequests.get());
+            assertTrue(client.getBoard(BOARD_ID).isPresent());
+            assertEquals(1, loginRequests.get());
+            assertEquals(SESSION_ID, client.getSessionId());
+        }
+
+        // Обновленная сессия сохранена и используется следующим экземпляром
+        try (JiraClient client = JiraClient.builder(jiraUrl, USERNAME, PASSWORD)
+                .withSessionStore(sessionStore).build()) {
+            assertTrue(client.getBoard(BOARD_ID).isPresent());
+        }
+        assertEquals(1, loginRequests.get());
+        assertEquals(0, logoutRequests.get());
+    }
+
+    @Test
+    void expiredSessionWrongPasswordTest(@TempDir Path tempDir) throws IOException {
+        Path sessionStore = tempDir.resolve("sessions");
+        Properties sessions = new Properties();
+        sessions.setProperty(USERNAME + "@" + jiraUrl, "expired-session");
+        try (OutputStream out = Files.newOutputStream(sessionStore)) {
+            sessions.store(out, null);
+        }
+
+        // Ошибка повторного входа после ответа 401 возвращается так же, как ошибка входа при подключении
+        try (JiraClient client = JiraClient.builder(jiraUrl, USERNAME, "wrong-password")
+                .withSessionStore(sessionStore).build()) {
+            Throwable exception = assertThrows(JiraException.class, () -> client.getBoard(BOARD_ID));
+            assertEquals(WebClientResponseException.Unauthorized.class, exception.getCause().getClass());
+        }
+    }
+
+    @Test
+    void accessTokenTest() {
+        loginRequests.set(0);
+        try (JiraClient client = JiraClient.builder(jiraUrl, null, null)
+                .withAccessToken(ACCESS_TOKEN).build()) {
+            assertTrue(client.getBoard(BOARD_ID).isPresent());
+            assertNull(client.getSessionId());
+        }
+        assertEquals(0, loginRequests.get());
+    }
+
+    @Test
+    void responseCacheTest(@TempDir Path tempDir) {
+        HttpClientSettings revalidateAlways = HttpClientSettings.builder().withResponseCacheTtl(Duration.ZERO).build();
+        boardConfigRequests.set(0);
+        notModifiedResponses.set(0);
+
+        // Одновременные одинаковые запросы объединяются
+        try (JiraClient client = JiraClient.builder(jiraUrl, USERNAME, PASSWORD)
+                .withHttpClientSettings(revalidateAlways).withResponseCacheDir(tempDir).build()) {
+            var configs = Mono.zip(client.getBoardConfigMono(BOARD_ID), client.getBoardConfigMono(BOARD_ID)).block();
+            assertNotNull(configs);
+            assertEquals(configs.getT1().getId(), configs.getT2().getId());
+            assertEquals(1, boardConfigRequests.get());
+        }
+
+        // Сохраненный ответ проверяется условным запросом
+        try (JiraClient client = JiraClient.builder(jiraUrl, USERNAME, PASSWORD)
+                .withHttpClientSettings(revalidateAlways).withResponseCacheDir(tempDir).build()) {
+            assertEquals(BOARD_ID, client.getBoardConfig(BOARD_ID).orElseThrow().getId());
+            assertEquals(2, boardConfigRequests.get());
+            assertEquals(1, notModifiedResponses.get());
+        }
+
+        // В течение ttl сохраненный ответ используется без запроса
+        try (JiraClient client = JiraClient.builder(jiraUrl, USERNAME, PASSWORD)
+                .withResponseCacheDir(tempDir).build()) {
+            assertEquals(BOARD_ID, client.getBoardConfig(BOARD_ID).orElseThrow().getId());
+            assertEquals(2, boardConfigRequests.get());
+        }
+    }
+
     @Test
     void getBoardConfig() {
         BoardConfig boardConfig = jiraClient.getBoardConfig(BOARD_ID).get();
         assertEquals(BOARD_ID, boardConfig.getId());
     }
 
+    @Test
+    void asyncBootstrapTest() {
+        var connection = Mono.zip(
+                jiraClient.getBoardMono(BOARD_ID),
+                jiraClient.getBoardConfigMono(BOARD_ID),
+                jiraClient.getBoardIssuesPage(BOARD_ID, null, null, 0,
+                        AdaptivePageSize.fixed(BoardIssuesPage.DEFAULT_MAX_RESULTS), true)).block();
+        assertNotNull(connection);
+        assertEquals(BOARD_ID, connection.getT1().getId());
+        assertEquals(BOARD_ID, connection.getT2().getId());
+        assertEquals(35, connection.getT3().getTotal());
+    }
+
     @Test
     void pagingTest() {
         Optional<Board> optionalBoard = jiraClient.getBoard(BOARD_ID);
@@ -170,6 +326,89 @@ class JiraClientTest {
                 , () -> System.out.println("Доска не найдена"));
     }
 
+    @Test
+    void parallelPagingTest() {
+        Board board = jiraClient.getBoard(BOARD_ID).orElseThrow();
+        BoardIssuesPage firstPage = jiraClient.getBoardIssuesPage(
+                board, null, null, 0, BoardIssuesPage.DEFAULT_MAX_RESULTS).block();
+        assertNotNull(firstPage);
+
+        // Заглушка: maxResults = 10, total = 35 -> еще 3 страницы
+        List<BoardIssuesPage> pages = jiraClient.getBoardIssuesPages(board, null, null, firstPage, 2)
+                .collectList().block();
+        assertNotNull(pages);
+        assertEquals(3, pages.size());
+    }
+
+    @Test
+    void failedPageTest() {
+        Board board = jiraClient.getBoard(BOARD_ID).orElseThrow();
+        BoardIssuesPage firstPage = jiraClient.getBoardIssuesPage(
+                board, null, null, 0, BoardIssuesPage.DEFAULT_MAX_RESULTS).block();
+        assertNotNull(firstPage);
+
+        // Ошибка, после которой запрос не повторяется, прерывает получение страниц, а не пропускает страницу
+        for (int status : new int[]{400, 404}) {
+            failingPageStatus.set(status);
+            failingPageResponses.set(Integer.MAX_VALUE);
+            failingPageRequests.set(0);
+            JiraException exception = assertThrows(JiraException.class, () ->
+                    jiraClient.getBoardIssuesPages(board, null, null, firstPage, 2).collectList().block());
+            assertTrue(exception.getMessage().contains(String.valueOf(status)), exception.getMessage());
+            assertTrue(exception.getMessage().contains("startAt=" + FAILING_PAGE_START_AT), exception.getMessage());
+            assertEquals(1, failingPageRequests.get());
+        }
+        failingPageResponses.set(0);
+    }
+
+    @Test
+    void serverErrorRetryTest() {
+        HttpClientSettings fastRetries = HttpClientSettings.builder()
+                .withMaxRetries(2).withRetryMinBackoff(Duration.ofMillis(10)).build();
+        try (JiraClient client = JiraClient.builder(jiraUrl, USERNAME, PASSWORD)
+                .withHttpClientSettings(fastRetries).build()) {
+            Board board = client.getBoard(BOARD_ID).orElseThrow();
+            BoardIssuesPage firstPage = client.getBoardIssuesPage(
+                    board, null, null, 0, BoardIssuesPage.DEFAULT_MAX_RESULTS).block();
+            assertNotNull(firstPage);
+            failingPageStatus.set(500);
+
+            // Ответ 500 повторяется
+            failingPageResponses.set(1);
+            failingPageRequests.set(0);
+            List<BoardIssuesPage> pages = client.getBoardIssuesPages(board, null, null, firstPage, 2)
+                    .collectList().block();
+            assertNotNull(pages);
+            assertEquals(3, pages.size());
+            assertEquals(2, failingPageRequests.get());
+
+            // После исчерпания повторов страница не пропускается
+            failingPageResponses.set(Integer.MAX_VALUE);
+            failingPageRequests.set(0);
+            assertThrows(JiraException.class, () ->
+                    client.getBoardIssuesPages(board, null, null, firstPage, 2).collectList().block());
+            assertEquals(3, failingPageRequests.get());
+        } finally {
+            failingPageResponses.set(0);
+        }
+    }
+
+    @Test
+    void streamingPageDecodingTest() throws IOException {
+        Board board = jiraClient.getBoard(BOARD_ID).orElseThrow();
+        AtomicReference<BoardIssuesPage> pageHeader = new AtomicReference<>();
+        List<Issue> issues = jiraClient.getBoardIssuesPageFlux(
+                board, null, null, 0, BoardIssuesPage.DEFAULT_MAX_RESULTS, true, pageHeader::set)
+                .collectList().block();
+
+        BoardIssuesPage expected = Jackson2ObjectMapperBuilder.json().build()
+                .readValue(BOARD_ISSUES_JSON_STUB, BoardIssuesPage.class);
+        assertEquals(expected.getIssues(), issues);
+        assertNotNull(pageHeader.get());
+        assertEquals(expected.getMaxResults(), pageHeader.get().getMaxResults());
+        assertEquals(expected.getTotal(), pageHeader.get().getTotal());
+    }
+
     @Test
     @Disabled
     void fluxTest() {
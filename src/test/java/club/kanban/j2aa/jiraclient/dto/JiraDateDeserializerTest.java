@@ -0,0 +1,48 @@
+package club.kanban.j2aa.jiraclient.dto;
+
+import club.kanban.j2aa.jiraclient.dto.issue.fields.Fields;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JiraDateDeserializerTest {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void jiraFormat() throws Exception {
+        String[] dates = {"2021-03-15T10:20:30.123+0300", "2020-02-29T23:59:59.999-0530", "1970-01-01T00:00:00.000+0000",
+                "1969-12-31T23:59:59.999+0000", "2000-12-31T00:00:00.001+1400", "1600-03-01T12:00:00.000+0100"};
+        for (String date : dates) {
+            long expected = objectMapper.readValue("\"" + date + "\"", Date.class).getTime();
+            assertEquals(expected, JiraDateDeserializer.parse(date.toCharArray(), 0, date.length()), date);
+            assertEquals(expected, readCreated("\"" + date + "\"").getTime(), date);
+        }
+    }
+
+    @Test
+    void otherFormats() throws Exception {
+        // Числовые даты и даты с другим видом смещения разбираются стандартным десериализатором
+        assertEquals(1_615_792_830_123L, readCreated("1615792830123").getTime());
+        assertEquals(1_615_792_830_123L, readCreated("\"2021-03-15T07:20:30.123Z\"").getTime());
+        assertEquals(1_615_792_830_123L, readCreated("\"2021-03-15T10:20:30.123+03:00\"").getTime());
+        assertEquals(-62_135_596_800_000L - 2 * 86_400_000L,
+                readCreated("\"0001-01-01T00:00:00.000+0000\"").getTime());
+        assertNull(readCreated("null"));
+    }
+
+    @Test
+    void roundTrip() throws Exception {
+        Fields fields = objectMapper.readValue("{\"created\":\"2021-03-15T10:20:30.123+0300\"}", Fields.class);
+        assertEquals(fields.getCreated(), objectMapper.readValue(objectMapper.writeValueAsString(fields), Fields.class)
+                .getCreated());
+    }
+
+    private Date readCreated(String json) throws Exception {
+        return objectMapper.readValue("{\"created\":" + json + "}", Fields.class).getCreated();
+    }
+}
@@ -0,0 +1,147 @@
+package club.kanban.j2aa.jiraclient.dto.issue.changelog;
+
+import club.kanban.j2aa.jiraclient.dto.issue.changelog.history.History;
+import club.kanban.j2aa.jiraclient.dto.issue.changelog.history.HistoryItem;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HistoriesDeserializer и HistoryItemsDeserializer сохраняют только изменения статуса и флага. Результат
+ * сравнивается с полным разбором истории изменений стандартными десериализаторами Jackson
+ */
+class HistoriesDeserializerTest {
+    // Записи без значимых изменений, вложенные объекты и массивы в значениях, null и элементы не-объекты
+    private static final String CHANGELOG = "{\"startAt\": 0, \"maxResults\": 7, \"total\": 7, \"histories\": ["
+            + "{\"id\": \"1\", \"author\": {\"name\": \"joseph\", \"avatarUrls\": {\"16x16\": \"x\"}},"
+            + " \"created\": \"2022-10-01T10:00:00.000+0300\", \"items\": ["
+            + "  {\"field\": \"description\", \"fieldtype\": \"jira\", \"from\": null, \"fromString\": \"a\","
+            + "   \"to\": null, \"toString\": \"b\"}]},"
+            + "{\"id\": \"2\", \"created\": \"2022-10-02T10:00:00.000+0300\", \"items\": ["
+            + "  {\"field\": \"Sprint\", \"fieldtype\": \"custom\", \"from\": \"\", \"to\": \"11\","
+            + "   \"tmpFromAccountId\": {\"id\": [1, 2, {\"x\": null}]}, \"toString\": \"Sprint 1\"},"
+            + "  {\"field\": \"status\", \"fieldtype\": \"jira\", \"from\": \"1\", \"fromString\": \"Backlog\","
+            + "   \"to\": \"3\", \"toString\": \"In Progress\"},"
+            + "  {\"field\": \"Rank\", \"fieldtype\": \"custom\", \"toString\": \"Ranked higher\"}]},"
+            + "{\"id\": \"3\", \"created\": \"2022-10-03T10:00:00.000+0300\", \"items\": []},"
+            + "{\"id\": \"4\", \"created\": \"2022-10-04T10:00:00.000+0300\", \"items\": null},"
+            + "{\"id\": \"5\", \"created\": \"2022-10-05T10:00:00.000+0300\", \"items\": ["
+            + "  {\"fieldtype\": \"custom\", \"field\": \"Flagged\", \"extra\": [\"a\", \"b\"], \"from\": \"\","
+            + "   \"fromString\": \"\", \"to\": \"[10000]\", \"toString\": \"Impediment\"},"
+            + "  \"unexpected\", 42,"
+            + "  {\"field\": \"Flagged\", \"fieldtype\": \"custom\", \"from\": \"[10000]\","
+            + "   \"fromString\": \"Impediment\", \"to\": \"\", \"toString\": \"\"}]},"
+            + "\"unexpected\","
+            + "{\"id\": \"6\", \"created\": \"2022-10-06T10:00:00.000+0300\", \"items\": ["
+            + "  {\"field\": \"status\", \"from\": \"3\", \"fromString\": \"In Progress\", \"to\": \"10001\","
+            + "   \"toString\": \"Done\", \"fieldId\": \"status\"}]},"
+            + "{\"id\": \"7\", \"created\": \"2022-10-07T10:00:00.000+0300\", \"items\": ["
+            + "  {\"field\": \"assignee\", \"from\": null, \"to\": \"joseph\"}]}"
+            + "]}";
+
+    private static final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private static final ObjectMapper fullObjectMapper = Jackson2ObjectMapperBuilder.json()
+            .mixIn(Changelog.class, FullChangelog.class)
+            .mixIn(History.class, FullHistory.class)
+            .build();
+
+    /**
+     * Отключает HistoriesDeserializer
+     */
+    private abstract static class FullChangelog {
+        @JsonDeserialize(using = JsonDeserializer.None.class)
+        List<History> histories;
+    }
+
+    /**
+     * Отключает HistoryItemsDeserializer
+     */
+    private abstract static class FullHistory {
+        @JsonDeserialize(using = JsonDeserializer.None.class)
+        List<HistoryItem> historyItems;
+    }
+
+    @Test
+    void skipsIrrelevantChanges() throws IOException {
+        Changelog changelog = objectMapper.readValue(CHANGELOG, Changelog.class);
+        assertEquals(7, changelog.getTotal());
+
+        List<History> histories = changelog.getHistories();
+        assertEquals(List.of(2L, 5L, 6L), histories.stream().map(History::getId).collect(Collectors.toList()));
+        assertEquals(List.of(new HistoryItem("status", "jira", "1", "Backlog", "3", "In Progress")),
+                histories.get(0).getHistoryItems());
+        assertEquals(List.of(
+                        new HistoryItem("Flagged", "custom", "", "", "[10000]", "Impediment"),
+                        new HistoryItem("Flagged", "custom", "[10000]", "Impediment", "", "")),
+                histories.get(1).getHistoryItems());
+        assertEquals(List.of(new HistoryItem("status", null, "3", "In Progress", "10001", "Done")),
+                histories.get(2).getHistoryItems());
+    }
+
+    @Test
+    void sameTransitionsAsFullMapping() throws IOException {
+        List<String> changelogs = new ArrayList<>();
+        // Строки-элементы не поддерживаются стандартным разбором списка объектов
+        changelogs.add(CHANGELOG.replaceAll("\"unexpected\",( 42,)?", ""));
+        for (String resource : List.of("stubs/issueset.json", "testIssuesSet.json")) {
+            for (JsonNode issue : readResource(resource).get("issues")) {
+                changelogs.add(issue.get("changelog").toString());
+            }
+        }
+        changelogs.add(readResource("testIssue.json").get("changelog").toString());
+
+        for (String json : changelogs) {
+            Changelog changelog = objectMapper.readValue(json, Changelog.class);
+            Changelog fullChangelog = fullObjectMapper.readValue(json, Changelog.class);
+            assertEquals(getTransitions(fullChangelog), changelog.getHistories());
+        }
+
+        // Полный разбор сохраняет все изменения
+        Changelog fullChangelog = fullObjectMapper.readValue(changelogs.get(0), Changelog.class);
+        assertEquals(7, fullChangelog.getHistories().size());
+        assertEquals(3, fullChangelog.getHistories().get(1).getHistoryItems().size());
+    }
+
+    @Test
+    void nullHistories() throws IOException {
+        assertTrue(objectMapper.readValue("{\"histories\": null}", Changelog.class).getHistories().isEmpty());
+        assertTrue(objectMapper.readValue("{\"histories\": []}", Changelog.class).getHistories().isEmpty());
+    }
+
+    /**
+     * Оставляет в полной истории изменений только изменения статуса и флага
+     */
+    private static List<History> getTransitions(Changelog changelog) throws IOException {
+        List<History> transitions = new ArrayList<>();
+        for (History history : changelog.getHistories()) {
+            List<HistoryItem> items = history.getHistoryItems().stream()
+                    .filter(item -> item != null && HistoryItem.isRelevant(item.getField()))
+                    .collect(Collectors.toList());
+            if (!items.isEmpty()) {
+                ObjectNode node = fullObjectMapper.valueToTree(history);
+                node.set("items", fullObjectMapper.valueToTree(items));
+                transitions.add(fullObjectMapper.treeToValue(node, History.class));
+            }
+        }
+        return transitions;
+    }
+
+    private static JsonNode readResource(String name) throws IOException {
+        try (InputStream inputStream = HistoriesDeserializerTest.class.getClassLoader().getResourceAsStream(name)) {
+            return objectMapper.readTree(Objects.requireNonNull(inputStream));
+        }
+    }
+}